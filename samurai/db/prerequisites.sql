@@ -0,0 +1,8 @@
+-- Run once per database, as a superuser or a role with CREATE on the database, before the
+-- application's first start (and so before Flyway applies V4__advance_reservations.sql):
+--   psql -U postgres -d parking_db -f samurai/db/prerequisites.sql
+-- V4 repeats the statement with "if not exists", which then needs no privileges.
+-- docker-compose runs this script when it initializes an empty database volume.
+
+-- The exclusion constraint ex_rents_spot_period combines spot_id (=) with a time range (&&).
+create extension if not exists btree_gist;
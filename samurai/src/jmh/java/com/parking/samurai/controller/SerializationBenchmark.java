@@ -0,0 +1,102 @@
+package com.parking.samurai.controller;
+
+import com.parking.samurai.dto.ParkingSpotPage;
+import com.parking.samurai.dto.ParkingSpotView;
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.entity.Rent;
+import com.parking.samurai.util.ParkingSpotJson;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+* JMH benchmarks for JSON serialization of the listing payloads:
+* ParkingSpot entities, ParkingSpotView records and Rent entities through Jackson,
+* and ParkingSpotView lists through the hand-written ParkingSpotJson writer, both from scratch
+* (page endpoint) and from precomputed per-spot prefixes (snapshot re-render after a change).
+* Run with the gc profiler (enabled in the benchmark profile) to compare allocation per operation.
+*/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"200", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<ParkingSpot> spots;
+    private List<ParkingSpotView> views;
+    private List<Rent> rents;
+    private ParkingSpotPage page;
+    private byte[][] prefixes;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+        spots = new ArrayList<>(size);
+        rents = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.of(2026, 1, 15, 8, 0);
+        for (int i = 0; i < size; i++) {
+            ParkingSpot spot = ParkingSpot.builder()
+                    .id((long) i)
+                    .location("A-" + i)
+                    .pricePerHour(BigDecimal.valueOf(150 + i % 100, 2))
+                    .available(i % 3 != 0)
+                    .build();
+            spots.add(spot);
+            rents.add(Rent.builder()
+                    .id((long) i)
+                    .parkingSpot(spot)
+                    .startTime(now.minusMinutes(i % 120))
+                    .endTime(now.plusHours(2))
+                    .priceAtRentTime(spot.getPricePerHour())
+                    .totalPrice(spot.getPricePerHour().multiply(BigDecimal.TWO))
+                    .paymentStatus(Rent.PaymentStatus.PAID)
+                    .build());
+        }
+        views = spots.stream().map(ParkingSpotView::from).toList();
+        page = new ParkingSpotPage(views, null);
+        prefixes = ParkingSpotJson.prefixes(views);
+    }
+
+    @Benchmark
+    public byte[] spotEntities() {
+        return objectMapper.writeValueAsBytes(spots);
+    }
+
+    @Benchmark
+    public byte[] spotViews() {
+        return objectMapper.writeValueAsBytes(views);
+    }
+
+    @Benchmark
+    public byte[] spotPageJackson() {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] spotPageHandWritten() {
+        return ParkingSpotJson.writePage(page);
+    }
+
+    @Benchmark
+    public byte[] spotViewsFromPrefixes() {
+        return ParkingSpotJson.writeArray(views, prefixes, false);
+    }
+
+    @Benchmark
+    public byte[] rentEntities() {
+        return objectMapper.writeValueAsBytes(rents);
+    }
+}
@@ -0,0 +1,79 @@
+package com.parking.samurai.pricing;
+
+import com.parking.samurai.entity.ParkingSpot;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+* JMH benchmark for TariffPricingEngine: the long hot path, the BigDecimal boundary,
+* and quoting a whole garage map. Run with -prof gc to confirm the hot path does not allocate.
+*/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceCalculationBenchmark {
+
+    private static final int GARAGE_SIZE = 10_000;
+
+    private PricingEngine engine;
+    private ParkingSpot spot;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private LocalDateTime multiDayEnd;
+
+    private String[] locations;
+    private long[] ratesMinor;
+
+    @Setup
+    public void setUp() {
+        engine = new TariffPricingEngine(
+                "00:00-07:00=0.5,07:00-19:00=1.0,19:00-24:00=0.75",
+                "A=1.0,B=0.8,VIP=2.0@12",
+                10,
+                60);
+        spot = ParkingSpot.builder().id(1L).location("A-1").pricePerHour(new BigDecimal("2.50")).build();
+        start = LocalDateTime.of(2026, 1, 15, 8, 10);
+        end = start.plusHours(3).plusMinutes(25);
+        multiDayEnd = start.plusDays(6).plusHours(5);
+
+        String[] zones = {"A", "B", "VIP", "C"};
+        locations = new String[GARAGE_SIZE];
+        ratesMinor = new long[GARAGE_SIZE];
+        for (int i = 0; i < GARAGE_SIZE; i++) {
+            locations[i] = zones[i % zones.length] + "-" + i;
+            ratesMinor[i] = 150 + (i % 7) * 50;
+        }
+    }
+
+    @Benchmark
+    public long fixedPeriodMinor() {
+        return engine.priceMinor(spot.getLocation(), 250, start, end);
+    }
+
+    @Benchmark
+    public long multiDayMinor() {
+        return engine.priceMinor(spot.getLocation(), 250, start, multiDayEnd);
+    }
+
+    @Benchmark
+    public BigDecimal fixedPeriodBigDecimal() {
+        return engine.price(spot, start, end);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long garageQuote() {
+        long cheapest = Long.MAX_VALUE;
+        for (int i = 0; i < GARAGE_SIZE; i++) {
+            cheapest = Math.min(cheapest, engine.priceMinor(locations[i], ratesMinor[i], start, end));
+        }
+        return cheapest;
+    }
+}
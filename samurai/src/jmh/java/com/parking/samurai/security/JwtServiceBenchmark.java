@@ -0,0 +1,75 @@
+package com.parking.samurai.security;
+
+import com.parking.samurai.entity.User;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+* JMH benchmarks for JwtService: token generation, cold validation (parse + HMAC check)
+* and validation of a token already in the verified-token cache.
+*/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "yourVeryLongBase64SecretKeyHereAtLeast256BitsLonggggggggggggggg==";
+    private static final int COLD_TOKENS = 4096;
+
+    private User user;
+    private JwtService cachingService;
+    private JwtService coldService;
+    private String cachedToken;
+    private String[] coldTokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        user = User.builder().id(42L).username("bench-user").password("{noop}secret").build();
+
+        cachingService = newService(10_000);
+        cachedToken = cachingService.generateToken(user);
+        cachingService.parseValidClaims(cachedToken);
+
+        // A one-entry cache and many distinct tokens: every validation is a full parse.
+        coldService = newService(1);
+        coldTokens = new String[COLD_TOKENS];
+        for (int i = 0; i < COLD_TOKENS; i++) {
+            coldTokens[i] = coldService.generateToken(
+                    User.builder().id((long) i).username("user-" + i).password("{noop}secret").build());
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingService.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims validateCold() {
+        next = (next + 1) & (COLD_TOKENS - 1);
+        return coldService.parseValidClaims(coldTokens[next]);
+    }
+
+    @Benchmark
+    public Claims validateCached() {
+        return cachingService.parseValidClaims(cachedToken);
+    }
+
+    private static JwtService newService(int cacheMaxSize) {
+        JwtService service = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", cacheMaxSize);
+        service.init();
+        return service;
+    }
+}
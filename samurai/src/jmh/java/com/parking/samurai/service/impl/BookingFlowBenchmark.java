@@ -0,0 +1,107 @@
+package com.parking.samurai.service.impl;
+
+import com.parking.samurai.SamuraiApplication;
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.entity.Rent;
+import com.parking.samurai.entity.User;
+import com.parking.samurai.repository.ParkingSpotRepository;
+import com.parking.samurai.repository.UserRepository;
+import com.parking.samurai.security.AuthenticatedUser;
+import com.parking.samurai.service.RentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+* End-to-end JMH benchmark of the booking flow: claim a spot, create the Rent,
+* then cancel it and release the spot, through the real RentService and JPA stack.
+* Runs the full application context against an in-memory H2 database in PostgreSQL mode,
+* so absolute numbers are lower than against PostgreSQL; use it to compare changes.
+*/
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookingFlowBenchmark {
+
+    private static final int SPOTS_PER_THREAD = 64;
+
+    private ConfigurableApplicationContext context;
+    private RentService rentService;
+    private ParkingSpotRepository spotRepository;
+    private AuthenticatedUser principal;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(SamuraiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        // The migrations are PostgreSQL-specific; H2 gets its schema from Hibernate.
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .run();
+
+        rentService = context.getBean(RentService.class);
+        spotRepository = context.getBean(ParkingSpotRepository.class);
+
+        User user = context.getBean(UserRepository.class).save(
+                User.builder().username("bench-user").password("{noop}secret").build());
+        principal = AuthenticatedUser.of(user);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    // Each benchmark thread books from its own set of spots, so threads never contend for a spot.
+    @State(Scope.Thread)
+    public static class ThreadSpots {
+
+        private final List<Long> spotIds = new ArrayList<>();
+        private int next;
+
+        @Setup(Level.Trial)
+        public void createSpots(BookingFlowBenchmark benchmark) {
+            for (int i = 0; i < SPOTS_PER_THREAD; i++) {
+                ParkingSpot spot = benchmark.spotRepository.save(ParkingSpot.builder()
+                        .location("BENCH-" + Thread.currentThread().threadId() + "-" + i)
+                        .pricePerHour(new BigDecimal("2.50"))
+                        .available(true)
+                        .build());
+                spotIds.add(spot.getId());
+            }
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    benchmark.principal, null, benchmark.principal.authorities()));
+        }
+
+        Long nextSpotId() {
+            next = (next + 1) % spotIds.size();
+            return spotIds.get(next);
+        }
+    }
+
+    @Benchmark
+    public Rent bookAndCancel(ThreadSpots spots) {
+        Rent rent = rentService.bookSpot(spots.nextSpotId());
+        return rentService.cancelRent(rent.getId());
+    }
+}
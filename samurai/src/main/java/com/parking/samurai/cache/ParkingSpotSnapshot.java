@@ -0,0 +1,187 @@
+package com.parking.samurai.cache;
+
+import com.parking.samurai.dto.ParkingSpotChange;
+import com.parking.samurai.dto.ParkingSpotView;
+import com.parking.samurai.pricing.Money;
+import com.parking.samurai.util.ParkingSpotJson;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+* Immutable, versioned snapshot of all parking spots.
+* Spots are sorted by id; the JSON for the full list and for the available subset
+* is serialized at most once per version and served as-is.
+* The version matches the WebSocket change version the snapshot reflects.
+*
+* <p>Spots are held in fixed-size pages. Each page keeps its spots' pre-encoded JSON prefixes
+* (see ParkingSpotJson) and its rendered elements for both lists, so the next version after
+* availability changes copies and re-renders only the pages holding changed spots and shares the
+* others. The response bodies are joined from the page elements on first read, so versions that
+* are never served (several flushes between two polls) cost no body at all.</p>
+* ratesMinor holds each spot's hourly price in minor units (-1 if it has none), for price quotes
+* that never touch BigDecimal. Prices do not change between versions, so it is shared by all of them.
+*/
+
+public final class ParkingSpotSnapshot {
+
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    private final long version;
+    private final Page[] pages;
+    private final int size;
+    private final long[] ratesMinor;
+    private final List<ParkingSpotView> spots = new Spots();
+
+    // Joined lazily; concurrent first reads may both join, producing identical bytes.
+    private volatile byte[] allJson;
+    private volatile byte[] availableJson;
+
+    private ParkingSpotSnapshot(long version, Page[] pages, int size, long[] ratesMinor) {
+        this.version = version;
+        this.pages = pages;
+        this.size = size;
+        this.ratesMinor = ratesMinor;
+    }
+
+    // Builds a snapshot from spots sorted by id; every spot is encoded here once.
+    public static ParkingSpotSnapshot of(long version, List<ParkingSpotView> spots) {
+        int size = spots.size();
+        Page[] pages = new Page[(size + PAGE_SIZE - 1) >>> PAGE_SHIFT];
+        for (int p = 0; p < pages.length; p++) {
+            List<ParkingSpotView> slice = spots.subList(p << PAGE_SHIFT, Math.min(size, (p + 1) << PAGE_SHIFT));
+            pages[p] = Page.of(slice.toArray(ParkingSpotView[]::new), ParkingSpotJson.prefixes(slice));
+        }
+
+        long[] rates = new long[size];
+        for (int i = 0; i < size; i++) {
+            BigDecimal price = spots.get(i).pricePerHour();
+            rates[i] = price == null ? -1 : Money.toMinor(price);
+        }
+        return new ParkingSpotSnapshot(version, pages, size, rates);
+    }
+
+    // The given version with the availability changes applied, or null if a changed spot is not
+    // in this snapshot (it is structurally stale). Costs one binary search per change plus one
+    // page copy and render per touched page; untouched pages are shared with this snapshot.
+    public ParkingSpotSnapshot withChanges(long version, List<ParkingSpotChange> changes) {
+        ParkingSpotView[][] touched = new ParkingSpotView[pages.length][];
+        for (ParkingSpotChange change : changes) {
+            int index = indexOf(change.spotId());
+            if (index < 0) {
+                return null;
+            }
+            int p = index >>> PAGE_SHIFT;
+            if (touched[p] == null) {
+                touched[p] = pages[p].spots().clone();
+            }
+            int slot = index & (PAGE_SIZE - 1);
+            touched[p][slot] = touched[p][slot].withAvailable(change.available());
+        }
+
+        Page[] patched = pages.clone();
+        for (int p = 0; p < patched.length; p++) {
+            if (touched[p] != null) {
+                // Location and price are unchanged, so the encoded prefixes are reused as they are.
+                patched[p] = Page.of(touched[p], pages[p].prefixes());
+            }
+        }
+        return new ParkingSpotSnapshot(version, patched, size, ratesMinor);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    // Read-only list view over the pages, in id order.
+    public List<ParkingSpotView> spots() {
+        return spots;
+    }
+
+    public long[] ratesMinor() {
+        return ratesMinor;
+    }
+
+    public byte[] allJson() {
+        byte[] json = allJson;
+        if (json == null) {
+            json = join(false);
+            allJson = json;
+        }
+        return json;
+    }
+
+    public byte[] availableJson() {
+        byte[] json = availableJson;
+        if (json == null) {
+            json = join(true);
+            availableJson = json;
+        }
+        return json;
+    }
+
+    // Strong ETag: the same version always yields byte-identical JSON.
+    public String etag() {
+        return "\"spots-" + version + "\"";
+    }
+
+    private byte[] join(boolean availableOnly) {
+        List<byte[]> elements = new ArrayList<>(pages.length);
+        for (Page page : pages) {
+            elements.add(availableOnly ? page.availableElements() : page.allElements());
+        }
+        return ParkingSpotJson.joinArray(elements);
+    }
+
+    // Binary search by id over all pages.
+    private int indexOf(Long id) {
+        if (id == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = spots.get(mid).id();
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private record Page(ParkingSpotView[] spots, byte[][] prefixes, byte[] allElements, byte[] availableElements) {
+
+        static Page of(ParkingSpotView[] spots, byte[][] prefixes) {
+            List<ParkingSpotView> list = Arrays.asList(spots);
+            return new Page(spots, prefixes,
+                    ParkingSpotJson.writeElements(list, prefixes, false),
+                    ParkingSpotJson.writeElements(list, prefixes, true));
+        }
+    }
+
+    private final class Spots extends AbstractList<ParkingSpotView> implements RandomAccess {
+
+        @Override
+        public ParkingSpotView get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return pages[index >>> PAGE_SHIFT].spots()[index & (PAGE_SIZE - 1)];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.parking.samurai.cache;
+
+import com.parking.samurai.dto.ParkingSpotView;
+import com.parking.samurai.event.ParkingSpotChangesEvent;
+import com.parking.samurai.repository.ParkingSpotRepository;
+import com.parking.samurai.service.WebSocketService;
+import com.parking.samurai.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+* Holds the current ParkingSpotSnapshot served by the spot listing endpoints.
+* The snapshot is built from the database once, then patched in memory from the
+* same change feed WebSocket clients receive, so steady-state reads cost no query
+* and no serialization. Structural changes (new spots) invalidate it instead,
+* and the next read rebuilds it. Each spot is JSON-encoded and its rate converted to minor units
+* once per rebuild; a patch only re-renders the snapshot pages holding changed spots
+* (see ParkingSpotSnapshot), so a flush costs what changed rather than the size of the garage.
+*/
+
+@Component
+@RequiredArgsConstructor
+public class ParkingSpotSnapshotCache {
+
+    private final ParkingSpotRepository parkingSpotRepository;
+    private final WebSocketService webSocketService;
+
+    private final Object lock = new Object();
+    private volatile ParkingSpotSnapshot snapshot;
+
+    public ParkingSpotSnapshot current() {
+        ParkingSpotSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (lock) {
+            if (snapshot == null) {
+                // Read the version before the query: later changes are re-applied on top.
+                long version = webSocketService.currentVersion();
+                List<ParkingSpotView> spots = new ArrayList<>(parkingSpotRepository.findAll().stream()
+                        .map(ParkingSpotView::from)
+                        .toList());
+                spots.sort(Comparator.comparing(ParkingSpotView::id));
+                snapshot = ParkingSpotSnapshot.of(version, spots);
+            }
+            return snapshot;
+        }
+    }
+
+    // Drops the snapshot once the current transaction commits; the next read rebuilds it.
+    public void invalidateAfterCommit() {
+        TransactionCallbacks.afterCommit(this::invalidate);
+    }
+
+    public void invalidate() {
+        synchronized (lock) {
+            snapshot = null;
+        }
+    }
+
+    @EventListener
+    public void onChanges(ParkingSpotChangesEvent event) {
+        synchronized (lock) {
+            ParkingSpotSnapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+
+            // Versions are consecutive; a gap means changes were dropped, so rebuild on the next read.
+            if (event.changes().getFirst().version() > current.version() + 1) {
+                snapshot = null;
+                return;
+            }
+            // Null for an unknown spot: the snapshot is structurally stale and is rebuilt on the next read.
+            snapshot = current.withChanges(Math.max(current.version(), event.lastVersion()), event.changes());
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.parking.samurai.cache;
+
+import com.parking.samurai.dto.RentInterval;
+import com.parking.samurai.repository.RentRepository;
+import com.parking.samurai.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+* Node-local interval index of the periods held by active rents and reservations.
+* Each spot with bookings has an immutable array of intervals sorted by start, replaced
+* copy-on-write, so an overlap check is a binary search and needs no lock.
+* "Free spots for a window" only visits spots booked on the days the window touches, found through
+* per-day buckets of spot ids.
+* The database stays authoritative (exclusion constraint on rents): the index only rejects
+* conflicts early and answers searches, and is rebuilt from RentRepository at startup and periodically.
+* Bookings applied while a rebuild is loading are replayed onto the rebuilt index before it replaces
+* the current one, so a rebuild never loses a booking committed after its query started.
+*/
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationIndex {
+
+    private static final long DAY_SECONDS = 86_400;
+    // Intervals spanning more days are not bucketed; their spots are candidates for every window.
+    private static final long MAX_BUCKETED_DAYS = 31;
+    // Longer windows walk every booked spot instead of merging buckets.
+    private static final long MAX_SCANNED_DAYS = 7;
+
+    private final RentRepository rentRepository;
+
+    private final Object rebuildLock = new Object();
+    private final Object mutationLock = new Object();
+
+    private volatile Bookings bookings = new Bookings();
+
+    // Mutations applied since the running rebuild started, null when none is running. Guarded by mutationLock.
+    private List<Consumer<Bookings>> pendingMutations;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // Periodic resync picks up bookings made by other nodes and drops intervals that have ended.
+    @Scheduled(fixedDelayString = "${parking.reservation-index.resync-ms:60000}",
+            initialDelayString = "${parking.reservation-index.resync-ms:60000}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            // Recording starts before the query, so every booking the query cannot see is replayed.
+            synchronized (mutationLock) {
+                pendingMutations = new ArrayList<>();
+            }
+            Bookings rebuilt = new Bookings();
+            int count = 0;
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                for (RentInterval interval : rentRepository.findBlockingIntervals(now)) {
+                    rebuilt.add(interval.spotId(), interval.rentId(),
+                            seconds(interval.startTime()), seconds(interval.blockedUntil()), seconds(now));
+                    count++;
+                }
+            } catch (RuntimeException e) {
+                synchronized (mutationLock) {
+                    pendingMutations = null;
+                }
+                throw e;
+            }
+            synchronized (mutationLock) {
+                pendingMutations.forEach(mutation -> mutation.accept(rebuilt));
+                pendingMutations = null;
+                bookings = rebuilt;
+            }
+            log.debug("Reservation index rebuilt: {} intervals on {} spots", count, rebuilt.bySpot.size());
+        }
+    }
+
+    // True if no known booking of the spot overlaps [from, to).
+    public boolean isFree(Long spotId, LocalDateTime from, LocalDateTime to) {
+        SpotIntervals intervals = bookings.bySpot.get(spotId);
+        return intervals == null || !intervals.overlaps(seconds(from), seconds(to));
+    }
+
+    // Ids of the spots with a booking overlapping [from, to), sorted ascending.
+    public long[] blockedSpotIds(LocalDateTime from, LocalDateTime to) {
+        long fromSeconds = seconds(from);
+        long toSeconds = seconds(to);
+        Bookings current = bookings;
+        Collection<Long> candidates = current.candidates(fromSeconds, toSeconds);
+        long[] blocked = new long[Math.min(candidates.size(), 1024)];
+        int count = 0;
+        for (Long spotId : candidates) {
+            SpotIntervals intervals = current.bySpot.get(spotId);
+            if (intervals != null && intervals.overlaps(fromSeconds, toSeconds)) {
+                if (count == blocked.length) {
+                    blocked = Arrays.copyOf(blocked, Math.max(16, count * 2));
+                }
+                blocked[count++] = spotId;
+            }
+        }
+        blocked = Arrays.copyOf(blocked, count);
+        Arrays.sort(blocked);
+        return blocked;
+    }
+
+    // Records a booking once the surrounding transaction has committed.
+    public void addAfterCommit(Long spotId, Long rentId, LocalDateTime start, LocalDateTime blockedUntil) {
+        TransactionCallbacks.afterCommit(() -> add(spotId, rentId, start, blockedUntil));
+    }
+
+    // Drops a cancelled or lapsed booking once the surrounding transaction has committed.
+    public void removeAfterCommit(Long spotId, Long rentId) {
+        TransactionCallbacks.afterCommit(() -> remove(spotId, rentId));
+    }
+
+    public void add(Long spotId, Long rentId, LocalDateTime start, LocalDateTime blockedUntil) {
+        long startSeconds = seconds(start);
+        long endSeconds = seconds(blockedUntil);
+        mutate(index -> index.add(spotId, rentId, startSeconds, endSeconds, seconds(LocalDateTime.now())));
+    }
+
+    public void remove(Long spotId, Long rentId) {
+        mutate(index -> index.remove(spotId, rentId, seconds(LocalDateTime.now())));
+    }
+
+    // Applies a mutation to the current index and, while a rebuild is loading, records it for replay.
+    // Mutations are rare next to reads, which never take the lock.
+    private void mutate(Consumer<Bookings> mutation) {
+        synchronized (mutationLock) {
+            mutation.accept(bookings);
+            if (pendingMutations != null) {
+                pendingMutations.add(mutation);
+            }
+        }
+    }
+
+    // Rent times are zone-less local times, so they are compared as UTC seconds.
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // Intervals by spot, plus the spots booked on each UTC day (epoch day of the interval seconds).
+    // Day buckets are a superset: removals leave their spot behind until the next rebuild,
+    // and candidates are always checked against bySpot.
+    private static final class Bookings {
+
+        final Map<Long, SpotIntervals> bySpot = new ConcurrentHashMap<>();
+        final Map<Long, Set<Long>> spotsByDay = new ConcurrentHashMap<>();
+        final Set<Long> longBookedSpots = ConcurrentHashMap.newKeySet();
+
+        void add(Long spotId, long rentId, long start, long end, long now) {
+            bySpot.compute(spotId, (id, intervals) -> (intervals == null ? SpotIntervals.EMPTY : intervals)
+                    .with(rentId, start, end, now));
+            if (end <= now || end <= start) {
+                return;
+            }
+            long firstDay = Math.floorDiv(start, DAY_SECONDS);
+            long lastDay = Math.floorDiv(end - 1, DAY_SECONDS);
+            if (lastDay - firstDay >= MAX_BUCKETED_DAYS) {
+                longBookedSpots.add(spotId);
+                return;
+            }
+            for (long day = firstDay; day <= lastDay; day++) {
+                spotsByDay.computeIfAbsent(day, key -> ConcurrentHashMap.newKeySet()).add(spotId);
+            }
+        }
+
+        void remove(Long spotId, long rentId, long now) {
+            bySpot.computeIfPresent(spotId, (id, intervals) -> intervals.without(rentId, now));
+        }
+
+        // Spots that may have a booking overlapping [from, to).
+        Collection<Long> candidates(long from, long to) {
+            long firstDay = Math.floorDiv(from, DAY_SECONDS);
+            long lastDay = Math.floorDiv(to - 1, DAY_SECONDS);
+            if (to <= from || lastDay - firstDay >= MAX_SCANNED_DAYS) {
+                return bySpot.keySet();
+            }
+            Set<Long> candidates = new HashSet<>(longBookedSpots);
+            for (long day = firstDay; day <= lastDay; day++) {
+                Set<Long> spots = spotsByDay.get(day);
+                if (spots != null) {
+                    candidates.addAll(spots);
+                }
+            }
+            return candidates;
+        }
+    }
+
+    // Bookings of one spot sorted by start. maxEnds[i] is the latest end among the first i + 1
+    // intervals, so overlap checks stay correct even if a stale index briefly holds overlapping ones.
+    private record SpotIntervals(long[] starts, long[] ends, long[] maxEnds, long[] rentIds) {
+
+        static final SpotIntervals EMPTY = new SpotIntervals(new long[0], new long[0], new long[0], new long[0]);
+
+        boolean overlaps(long from, long to) {
+            // Intervals starting before `to` are the candidates; one of them must end after `from`.
+            int candidates = firstStartAtOrAfter(to);
+            return candidates > 0 && maxEnds[candidates - 1] > from;
+        }
+
+        // Copy with the interval added (replacing an interval of the same rent) and ended ones pruned.
+        SpotIntervals with(long rentId, long start, long end, long now) {
+            SpotIntervals kept = without(rentId, now);
+            if (end <= now) {
+                return kept;
+            }
+            if (kept == null) {
+                kept = EMPTY;
+            }
+            int size = kept.starts.length;
+            int position = kept.firstStartAtOrAfter(start);
+            long[] newStarts = insert(kept.starts, position, start);
+            long[] newEnds = insert(kept.ends, position, end);
+            long[] newRentIds = insert(kept.rentIds, position, rentId);
+            return of(newStarts, newEnds, newRentIds, size + 1);
+        }
+
+        // Copy without the rent's interval and without ended ones; null when nothing is left.
+        SpotIntervals without(long rentId, long now) {
+            int size = starts.length;
+            long[] newStarts = new long[size];
+            long[] newEnds = new long[size];
+            long[] newRentIds = new long[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (rentIds[i] != rentId && ends[i] > now) {
+                    newStarts[count] = starts[i];
+                    newEnds[count] = ends[i];
+                    newRentIds[count] = rentIds[i];
+                    count++;
+                }
+            }
+            return count == 0 ? null : of(newStarts, newEnds, newRentIds, count);
+        }
+
+        private int firstStartAtOrAfter(long time) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static SpotIntervals of(long[] starts, long[] ends, long[] rentIds, int size) {
+            long[] maxEnds = new long[size];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+            return new SpotIntervals(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size), maxEnds,
+                    Arrays.copyOf(rentIds, size));
+        }
+
+        private static long[] insert(long[] values, int position, long value) {
+            long[] result = new long[values.length + 1];
+            System.arraycopy(values, 0, result, 0, position);
+            result[position] = value;
+            System.arraycopy(values, position, result, position + 1, values.length - position);
+            return result;
+        }
+    }
+}
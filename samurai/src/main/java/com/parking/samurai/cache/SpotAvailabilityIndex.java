@@ -0,0 +1,188 @@
+package com.parking.samurai.cache;
+
+import com.parking.samurai.dto.SpotAvailability;
+import com.parking.samurai.repository.ParkingSpotRepository;
+import com.parking.samurai.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+* Node-local, lock-free index of parking spot availability.
+* Spot ids come from a dense sequence, so states are kept in paged primitive arrays
+* and claimed/released with compare-and-set instead of a database round trip.
+* The database stays authoritative: the index only answers "already rented" early,
+* and is rebuilt from ParkingSpotRepository at startup and periodically afterwards.
+*
+* <p>Each slot packs its state with the generation of the write that set it. A rebuild only
+* overwrites slots last written before the rebuild's query started, so a claim or release that
+* lands while the query runs is never replaced by the older database read.</p>
+*/
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SpotAvailabilityIndex {
+
+    private static final int UNKNOWN = 0;
+    private static final int FREE = 1;
+    private static final int TAKEN = 2;
+
+    private static final int STATE_BITS = 2;
+    private static final long STATE_MASK = (1 << STATE_BITS) - 1;
+
+    private static final int PAGE_SHIFT = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int MAX_PAGES = 1 << 16;
+
+    private final ParkingSpotRepository parkingSpotRepository;
+
+    // Pages are allocated lazily, so memory grows with the highest spot id rather than a fixed capacity.
+    private final AtomicReferenceArray<AtomicLongArray> pages = new AtomicReferenceArray<>(MAX_PAGES);
+
+    // Generation of the latest write; every claim, release and rebuild takes a new one.
+    private final AtomicLong generations = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // Periodic resync picks up changes made by other nodes or directly in the database.
+    @Scheduled(fixedDelayString = "${parking.availability-index.resync-ms:60000}",
+            initialDelayString = "${parking.availability-index.resync-ms:60000}")
+    public void rebuild() {
+        // Taken before the query: writes after this point are newer than anything the query can see.
+        long generation = generations.incrementAndGet();
+        int free = 0;
+        int taken = 0;
+        int skipped = 0;
+        for (SpotAvailability spot : parkingSpotRepository.findAllAvailability()) {
+            if (!setIfOlder(spot.id(), spot.available() ? FREE : TAKEN, generation)) {
+                skipped++;
+            } else if (spot.available()) {
+                free++;
+            } else {
+                taken++;
+            }
+        }
+        log.debug("Spot availability index rebuilt: {} free, {} taken, {} changed during rebuild",
+                free, taken, skipped);
+    }
+
+    // Atomically moves the spot to TAKEN.
+    // Returns false only when the index already knows the spot is taken;
+    // unknown spots are let through so the database can decide.
+    public boolean tryClaim(Long spotId) {
+        AtomicLongArray page = page(spotId, true);
+        if (page == null) {
+            return true;
+        }
+        int slot = slot(spotId);
+        while (true) {
+            long current = page.get(slot);
+            if (state(current) == TAKEN) {
+                return false;
+            }
+            if (page.compareAndSet(slot, current, pack(TAKEN, generations.incrementAndGet()))) {
+                return true;
+            }
+        }
+    }
+
+    public boolean isKnownTaken(Long spotId) {
+        AtomicLongArray page = page(spotId, false);
+        return page != null && state(page.get(slot(spotId))) == TAKEN;
+    }
+
+    public void markAvailable(Long spotId) {
+        set(spotId, FREE);
+    }
+
+    public void markTaken(Long spotId) {
+        set(spotId, TAKEN);
+    }
+
+    // Drops what the index knows about a spot, e.g. when the database says it does not exist.
+    public void forget(Long spotId) {
+        AtomicLongArray page = page(spotId, false);
+        if (page != null) {
+            page.set(slot(spotId), pack(UNKNOWN, generations.incrementAndGet()));
+        }
+    }
+
+    // Undoes a claim if the surrounding transaction does not commit.
+    public void releaseOnRollback(Long spotId) {
+        TransactionCallbacks.afterRollback(() -> markAvailable(spotId));
+    }
+
+    // Frees the spot in the index once the surrounding transaction has committed.
+    public void releaseAfterCommit(Long spotId) {
+        TransactionCallbacks.afterCommit(() -> markAvailable(spotId));
+    }
+
+    private void set(Long spotId, int state) {
+        AtomicLongArray page = page(spotId, true);
+        if (page != null) {
+            page.set(slot(spotId), pack(state, generations.incrementAndGet()));
+        }
+    }
+
+    // Writes the state only if the slot was last written before the given generation.
+    private boolean setIfOlder(Long spotId, int state, long generation) {
+        AtomicLongArray page = page(spotId, true);
+        if (page == null) {
+            return false;
+        }
+        int slot = slot(spotId);
+        while (true) {
+            long current = page.get(slot);
+            if (generation(current) >= generation) {
+                return false;
+            }
+            if (page.compareAndSet(slot, current, pack(state, generation))) {
+                return true;
+            }
+        }
+    }
+
+    private AtomicLongArray page(Long spotId, boolean create) {
+        if (spotId == null || spotId < 0) {
+            return null;
+        }
+        long pageIndex = spotId >>> PAGE_SHIFT;
+        if (pageIndex >= MAX_PAGES) {
+            return null;
+        }
+        int index = (int) pageIndex;
+        AtomicLongArray page = pages.get(index);
+        if (page == null && create) {
+            pages.compareAndSet(index, null, new AtomicLongArray(PAGE_SIZE));
+            page = pages.get(index);
+        }
+        return page;
+    }
+
+    private static int slot(Long spotId) {
+        return (int) (spotId & (PAGE_SIZE - 1));
+    }
+
+    private static long pack(int state, long generation) {
+        return generation << STATE_BITS | state;
+    }
+
+    private static int state(long slot) {
+        return (int) (slot & STATE_MASK);
+    }
+
+    private static long generation(long slot) {
+        return slot >>> STATE_BITS;
+    }
+}
@@ -0,0 +1,48 @@
+package com.parking.samurai.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+
+/**
+* Per-request async timeouts for handlers returning a StreamingResponseBody, which has no
+* timeout of its own and would otherwise get the MVC default.
+* The handler calls setTimeout(request, millis) before returning the body; the interceptor
+* applies it to that request just before its async processing starts.
+* Other async requests keep the default timeout.
+*/
+
+@Configuration
+public class AsyncTimeoutConfig implements WebMvcConfigurer {
+
+    private static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutConfig.class.getName() + ".timeout";
+
+    public static void setTimeout(HttpServletRequest request, long timeoutMillis) {
+        request.setAttribute(TIMEOUT_ATTRIBUTE, timeoutMillis);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new RequestTimeoutInterceptor());
+    }
+
+    private static final class RequestTimeoutInterceptor implements CallableProcessingInterceptor {
+
+        // Called with the request's AsyncWebRequest before async processing starts,
+        // which is the last point at which its timeout can still be changed.
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (timeout instanceof Long millis && request instanceof AsyncWebRequest asyncRequest) {
+                asyncRequest.setTimeout(millis);
+            }
+        }
+    }
+}
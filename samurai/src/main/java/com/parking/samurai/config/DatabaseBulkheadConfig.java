@@ -0,0 +1,37 @@
+package com.parking.samurai.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+* Wraps the application DataSource in a BulkheadDataSource when
+* parking.db-bulkhead.enabled=true (recommended together with virtual threads).
+* The number of permits defaults to the Hikari pool size, so concurrent database
+* access never exceeds what the pool can actually serve.
+*/
+
+@Configuration
+@ConditionalOnProperty(name = "parking.db-bulkhead.enabled", havingValue = "true")
+public class DatabaseBulkheadConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceBulkheadPostProcessor(
+            @Value("${parking.db-bulkhead.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${parking.db-bulkhead.acquire-timeout-ms:5000}") long acquireTimeoutMs
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(dataSource, maxConcurrent, acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
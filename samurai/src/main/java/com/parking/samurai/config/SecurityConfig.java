@@ -14,7 +14,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 /*
 * This class configures Spring Security for the application.
-* It defines which endpoints are publicly accessible and which require authentication.
+* It defines which endpoints are publicly accessible, which require authentication and which are admin-only.
 * JWT authentication is integrated via JwtAuthenticationFilter, and stateless session management is enforced.
 */
 
@@ -36,8 +36,11 @@ public class SecurityConfig {
                                 "/api/v1/auth/**",
                                 "/swagger-ui.html",
                                 "/swagger-ui/**",
-                                "/v3/api-docs/**"
+                                "/v3/api-docs/**",
+                                "/actuator/health"
                         ).permitAll()
+                        // Registration is open, so merely authenticated would still mean anyone.
+                        .requestMatchers("/api/v1/rents/export/all", "/actuator/prometheus").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -0,0 +1,163 @@
+package com.parking.samurai.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+* DataSource wrapper that logs only statements slower than a threshold on the
+* "parking.sql.slow" logger at WARN level. Bind values are logged only when logParameters is
+* set, which is off by default: they include password hashes and user ids.
+* Replaces show-sql and bind-parameter TRACE logging in production: fast statements
+* pay for one timer read and a parameter map, never for formatting or log I/O.
+* For JDBC batches the parameters of the last added row are shown.
+*/
+
+@Slf4j(topic = "parking.sql.slow")
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    private final long thresholdNanos;
+    private final boolean logParameters;
+
+    public SlowQueryDataSource(DataSource target, long thresholdMs, boolean logParameters) {
+        super(target);
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.logParameters = logParameters;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return switch (method.getName()) {
+                        case "prepareStatement", "prepareCall" -> wrapStatement((Statement) result, (String) args[0]);
+                        case "createStatement" -> wrapStatement((Statement) result, null);
+                        default -> result;
+                    };
+                });
+    }
+
+    private Statement wrapStatement(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        StatementState state = new StatementState(preparedSql);
+
+        return (Statement) Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("execute")) {
+                        long started = System.nanoTime();
+                        try {
+                            return invoke(statement, method, args);
+                        } finally {
+                            long elapsed = System.nanoTime() - started;
+                            if (elapsed >= thresholdNanos) {
+                                logSlow(state, args, elapsed);
+                            }
+                            if ("executeBatch".equals(name)) {
+                                state.batchSize = 0;
+                            }
+                        }
+                    }
+
+                    if (logParameters && name.startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer index) {
+                        state.parameters.put(index, "setNull".equals(name) ? null : args[1]);
+                    } else if ("clearParameters".equals(name)) {
+                        state.parameters.clear();
+                    } else if ("addBatch".equals(name)) {
+                        state.batchSize++;
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private void logSlow(StatementState state, Object[] args, long elapsedNanos) {
+        // Plain statements carry their SQL in the execute call itself.
+        String sql = state.sql != null ? state.sql
+                : args != null && args.length > 0 && args[0] instanceof String executed ? executed
+                : "<batch>";
+        String batch = state.batchSize > 0 ? ", batch of " + state.batchSize : "";
+
+        if (logParameters && !state.parameters.isEmpty()) {
+            log.warn("Slow SQL ({} ms{}): {} | params: {}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), batch, sql, formatParameters(state.parameters));
+        } else {
+            log.warn("Slow SQL ({} ms{}): {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), batch, sql);
+        }
+    }
+
+    private static String formatParameters(Map<Integer, Object> parameters) {
+        StringBuilder out = new StringBuilder("[");
+        for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+            if (out.length() > 1) {
+                out.append(", ");
+            }
+            out.append(parameter.getKey()).append('=').append(formatValue(parameter.getValue()));
+        }
+        return out.append(']').toString();
+    }
+
+    private static String formatValue(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        String text = value.toString();
+        if (text.length() > MAX_VALUE_LENGTH) {
+            text = text.substring(0, MAX_VALUE_LENGTH) + "...";
+        }
+        return value instanceof CharSequence ? "'" + text + "'" : text;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    // Per-statement bookkeeping; a JDBC statement is used by one thread at a time.
+    private static final class StatementState {
+
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private int batchSize;
+
+        private StatementState(String sql) {
+            this.sql = sql;
+        }
+    }
+}
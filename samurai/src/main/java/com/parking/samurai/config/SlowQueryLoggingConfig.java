@@ -0,0 +1,36 @@
+package com.parking.samurai.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+* Wraps the application DataSource in a SlowQueryDataSource when
+* parking.slow-query-log.enabled=true (on in the prod profile).
+* Only statements slower than parking.slow-query-log.threshold-ms are logged.
+*/
+
+@Configuration
+@ConditionalOnProperty(name = "parking.slow-query-log.enabled", havingValue = "true")
+public class SlowQueryLoggingConfig {
+
+    @Bean
+    public static BeanPostProcessor slowQueryLoggingPostProcessor(
+            @Value("${parking.slow-query-log.threshold-ms:200}") long thresholdMs,
+            @Value("${parking.slow-query-log.log-parameters:false}") boolean logParameters
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SlowQueryDataSource)) {
+                    return new SlowQueryDataSource(dataSource, thresholdMs, logParameters);
+                }
+                return bean;
+            }
+        };
+    }
+}
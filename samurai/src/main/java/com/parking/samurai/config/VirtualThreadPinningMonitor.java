@@ -0,0 +1,63 @@
+package com.parking.samurai.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+* Guard for the virtual-thread execution mode.
+* Streams the JDK's own jdk.VirtualThreadPinned flight-recorder events in-process and logs
+* every pinning longer than the threshold together with the top of its stack, so code that
+* blocks a carrier thread (native frames, class initialization, legacy drivers) is found early.
+* Enabled with parking.virtual-threads.pinning-monitor.enabled=true.
+*/
+
+@Component
+@ConditionalOnProperty(name = "parking.virtual-threads.pinning-monitor.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final int STACK_DEPTH = 8;
+
+    @Value("${parking.virtual-threads.pinning-monitor.threshold-ms:20}")
+    private long thresholdMs;
+
+    private RecordingStream stream;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned")
+                .withThreshold(Duration.ofMillis(thresholdMs))
+                .withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::report);
+        stream.startAsync();
+        log.info("Virtual thread pinning monitor started (threshold {} ms)", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        String stack = event.getStackTrace() == null ? "<no stack trace>" : event.getStackTrace().getFrames().stream()
+                .limit(STACK_DEPTH)
+                .map(RecordedFrame::getMethod)
+                .map(method -> method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining("\n    at ", "    at ", ""));
+        log.warn("Virtual thread pinned its carrier for {} ms:\n{}", event.getDuration().toMillis(), stack);
+    }
+}
@@ -1,6 +1,9 @@
 package com.parking.samurai.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -10,12 +13,17 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  *This class configures WebSocket messaging using STOMP protocol.
 * It defines the endpoint for WebSocket connections and sets up a simple message broker.
 * Allows real-time communication between server and clients (e.g., Flutter or browser apps).
+* When virtual threads are enabled (spring.threads.virtual.enabled), the inbound and outbound
+* client channels run on virtual threads instead of the default fixed-size pools.
 */
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
 
@@ -29,4 +37,18 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.enableSimpleBroker("/topic");
         registry.setApplicationDestinationPrefixes("/app");
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor("ws-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor("ws-outbound-"));
+        }
+    }
+}
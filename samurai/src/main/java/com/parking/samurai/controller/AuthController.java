@@ -10,12 +10,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
 * This REST controller handles user authentication endpoints.
-* Provides registration and login functionality with JWT token generation.
+* Provides registration, login and logout functionality with JWT token generation and revocation.
 * Uses AuthService to encapsulate business logic for authentication and registration.
 */
 
@@ -43,4 +44,16 @@ public class AuthController {
         // Returns an AuthResponse containing JWT token and user info upon successful authentication.
         return ResponseEntity.ok(authService.authenticate(request));
     }
+
+    @Operation(summary = "Logout and revoke the current JWT token")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader("Authorization") String authorization) {
+        // Accepts the "Bearer <token>" header and revokes that token.
+        // Returns 204 (No Content); the token is rejected on every later request.
+        if (!authorization.startsWith("Bearer ")) {
+            throw new IllegalArgumentException("Bearer token required");
+        }
+        authService.logout(authorization.substring(7));
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
@@ -1,19 +1,41 @@
 package com.parking.samurai.controller;
 
+import com.parking.samurai.cache.ParkingSpotSnapshot;
+import com.parking.samurai.dto.ParkingSpotChange;
+import com.parking.samurai.dto.ParkingSpotFilter;
+import com.parking.samurai.dto.ParkingSpotImportResult;
+import com.parking.samurai.dto.ParkingSpotPage;
+import com.parking.samurai.dto.ParkingSpotView;
 import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.service.ParkingSpotChangeFeed;
+import com.parking.samurai.service.ParkingSpotImportService;
 import com.parking.samurai.service.ParkingSpotService;
+import com.parking.samurai.service.WebSocketService;
+import com.parking.samurai.util.ParkingSpotJson;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
 * This REST controller provides endpoints to manage parking spots in the system.
-* Supports creating new spots, retrieving all spots, retrieving only available spots, and fetching spots by ID.
+* Supports creating new spots (one at a time or as a CSV/NDJSON bulk import), retrieving all spots, retrieving only available spots,
+* paginated and filtered listing, spots free for a future time window, fetching spots by ID,
+* and a Server-Sent Events stream of changes.
 * Business logic is delegated to ParkingSpotService to maintain separation of concerns.
 */
 
@@ -23,35 +45,118 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ParkingSpotController {
 
+    // Version of the last WebSocket change already reflected in a list response.
+    static final String SPOTS_VERSION_HEADER = "X-Parking-Spots-Version";
+
     private final ParkingSpotService parkingSpotService;
+    private final WebSocketService webSocketService;
+    private final ParkingSpotChangeFeed changeFeed;
+    private final ParkingSpotImportService importService;
 
     @Operation(summary = "Create a new parking spot")
     @PostMapping
-    public ResponseEntity<ParkingSpot> create(@RequestBody ParkingSpot spot) {
+    public ResponseEntity<ParkingSpotView> create(@RequestBody ParkingSpot spot) {
         // Accepts a ParkingSpot entity from the request body and delegates creation to the service layer.
-        // Returns the created ParkingSpot with HTTP 201 (Created) status.
+        // Returns the created spot as a ParkingSpotView with HTTP 201 (Created) status.
         ParkingSpot created = parkingSpotService.createParkingSpot(spot);
-        return new ResponseEntity<>(created, HttpStatus.CREATED);
+        webSocketService.notifySpotChanged(created.getId(), created.isAvailable());
+        return new ResponseEntity<>(ParkingSpotView.from(created), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Bulk import parking spots from CSV (header: location,pricePerHour[,available])")
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ParkingSpotImportResult> importCsv(InputStream body) throws IOException {
+        // The body is read as a stream, so large files are never buffered whole.
+        return ResponseEntity.ok(importService.importSpots(body, ParkingSpotImportService.Format.CSV));
+    }
+
+    @Operation(summary = "Bulk import parking spots from NDJSON (one spot object per line)")
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ParkingSpotImportResult> importNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importSpots(body, ParkingSpotImportService.Format.NDJSON));
     }
 
     @Operation(summary = "Retrieve all parking spots")
-    @GetMapping
-    public ResponseEntity<List<ParkingSpot>> getAll() {
-        // Retrieves all parking spots from the service layer.
-        return ResponseEntity.ok(parkingSpotService.getAllParkingSpots());
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAll() {
+        // Serves the pre-serialized snapshot. The ETag lets unchanged polls get 304 Not Modified;
+        // the version header tells WebSocket clients which deltas to replay on top.
+        ParkingSpotSnapshot snapshot = parkingSpotService.getSnapshot();
+        return snapshotResponse(snapshot, snapshot.allJson());
     }
 
     @Operation(summary = "Retrieve only available parking spots")
-    @GetMapping("/available")
-    public ResponseEntity<List<ParkingSpot>> getAvailable() {
+    @GetMapping(value = "/available", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAvailable() {
         // Retrieves only the spots that are currently available for parking.
-        return ResponseEntity.ok(parkingSpotService.getAvailableParkingSpots());
+        ParkingSpotSnapshot snapshot = parkingSpotService.getSnapshot();
+        return snapshotResponse(snapshot, snapshot.availableJson());
+    }
+
+    @Operation(summary = "Retrieve parking spots page by page (keyset pagination with filters)")
+    @GetMapping(value = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String locationPrefix,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean available
+    ) {
+        // Pass the returned nextCursor as "after" to fetch the next page; null means the last page.
+        ParkingSpotFilter filter = new ParkingSpotFilter(locationPrefix, minPrice, maxPrice, available);
+        ParkingSpotPage page = parkingSpotService.getParkingSpotPage(filter, after, limit);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ParkingSpotJson.writePage(page));
+    }
+
+    @Operation(summary = "Find parking spots free for a time window (no rent or reservation overlapping it)")
+    @GetMapping("/free")
+    public ResponseEntity<List<ParkingSpotView>> getFree(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String locationPrefix,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        // Answered from the spot snapshot and the in-memory reservation index, without a query.
+        return ResponseEntity.ok(parkingSpotService.findFreeSpots(from, to, locationPrefix, limit));
+    }
+
+    @Operation(summary = "Stream parking spot changes as Server-Sent Events")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<?>> stream() {
+        // Non-blocking: no request thread is held while the stream is idle.
+        // The first event carries the current version; each "changes" event carries a batch of deltas
+        // with the same versions as the WebSocket topic. Comments every 15 s keep proxies from timing out.
+        ServerSentEvent<Long> hello = ServerSentEvent.<Long>builder(webSocketService.currentVersion())
+                .event("version")
+                .build();
+
+        Flux<ServerSentEvent<?>> changes = changeFeed.changes()
+                .<ServerSentEvent<?>>map(batch -> ServerSentEvent.<List<ParkingSpotChange>>builder(batch)
+                        .id(Long.toString(batch.getLast().version()))
+                        .event("changes")
+                        .build());
+
+        Flux<ServerSentEvent<?>> heartbeats = Flux.interval(Duration.ofSeconds(15))
+                .<ServerSentEvent<?>>map(tick -> ServerSentEvent.builder().comment("keep-alive").build());
+
+        return Flux.<ServerSentEvent<?>>just(hello).concatWith(Flux.merge(changes, heartbeats));
     }
 
     @Operation(summary = "Retrieve a parking spot by ID")
     @GetMapping("/{id}")
-    public ResponseEntity<ParkingSpot> getById(@PathVariable Long id) {
+    public ResponseEntity<ParkingSpotView> getById(@PathVariable Long id) {
         // Fetches a specific parking spot using its ID from the service layer.
-        return ResponseEntity.ok(parkingSpotService.getParkingSpotById(id));
+        return ResponseEntity.ok(ParkingSpotView.from(parkingSpotService.getParkingSpotById(id)));
+    }
+
+    private static ResponseEntity<byte[]> snapshotResponse(ParkingSpotSnapshot snapshot, byte[] json) {
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .header(SPOTS_VERSION_HEADER, Long.toString(snapshot.version()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json);
     }
 }
\ No newline at end of file
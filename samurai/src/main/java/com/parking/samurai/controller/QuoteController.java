@@ -0,0 +1,38 @@
+package com.parking.samurai.controller;
+
+import com.parking.samurai.dto.QuoteRequest;
+import com.parking.samurai.dto.QuoteResponse;
+import com.parking.samurai.service.QuoteService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+* REST controller for price quotes.
+* Prices many spots for one period in a single round trip, e.g. the cheapest available spot
+* for the next 3 hours: {"filter": {"available": true}, "durationMinutes": 180, "limit": 1}.
+*/
+
+@Tag(name = "Quotes", description = "API for parking price quotes")
+@RestController
+@RequestMapping("/api/v1/quotes")
+@RequiredArgsConstructor
+public class QuoteController {
+
+    private final QuoteService quoteService;
+
+    @Operation(summary = "Quote prices for many parking spots, cheapest first")
+    @PostMapping
+    public ResponseEntity<QuoteResponse> quote(@RequestBody QuoteRequest request) {
+        // Quotes are computed from the cached spot snapshot; nothing is reserved.
+        QuoteResponse response = quoteService.quote(request);
+        return ResponseEntity.ok()
+                .header(ParkingSpotController.SPOTS_VERSION_HEADER, Long.toString(response.version()))
+                .body(response);
+    }
+}
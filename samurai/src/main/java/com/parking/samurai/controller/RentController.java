@@ -1,30 +1,36 @@
 package com.parking.samurai.controller;
 
+import com.parking.samurai.config.AsyncTimeoutConfig;
+import com.parking.samurai.dto.RentResponse;
 import com.parking.samurai.entity.Rent;
-import com.parking.samurai.repository.ParkingSpotRepository;
 import com.parking.samurai.repository.RentRepository;
-import com.parking.samurai.entity.User;
-import com.parking.samurai.repository.UserRepository;
+import com.parking.samurai.security.CurrentUserProvider;
+import com.parking.samurai.service.RentExportService;
 import com.parking.samurai.service.RentService;
 import com.parking.samurai.service.WebSocketService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 /**
 * This REST controller handles parking spot rental operations.
-* Supports booking, canceling, and fetching active rents.
+* Supports booking, advance reservations, canceling, fetching active rents, and streaming the
+* rent history export: the current user's own, or every user's for admins.
 * Integrates with WebSocketService to notify clients of real-time parking spot availability changes.
-* SecurityContext is used to identify the current authenticated user.
+* CurrentUserProvider is used to identify the current authenticated user.
+* Rents are returned as flat RentResponse DTOs built from explicitly fetched data.
 */
 
 @Tag(name = "Rents", description = "API for parking spot rental")
@@ -34,100 +40,129 @@ import java.util.Optional;
 @Slf4j
 public class RentController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final RentService rentService;
+    private final RentExportService rentExportService;
     private final WebSocketService webSocketService;
-    private final ParkingSpotRepository parkingSpotRepository;
     private final RentRepository rentRepository;
+    private final CurrentUserProvider currentUserProvider;
 
-    private final UserRepository userRepository;
-
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new IllegalStateException("User not authenticated");
-        }
-
-        Object principal = authentication.getPrincipal();
-
-        if (principal instanceof User) {
-            return (User) principal;
-        }
-
-        if (principal instanceof UserDetails) {
-            String username = ((UserDetails) principal).getUsername();
-            return userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("User not found in database"));
-        }
-
-        if (principal instanceof String) {
-            return userRepository.findByUsername((String) principal)
-                    .orElseThrow(() -> new RuntimeException("User not found in database"));
-        }
-
-        throw new IllegalStateException("Unexpected principal type: " + principal.getClass());
-    }
+    @Value("${parking.export.timeout-ms:3600000}")
+    private long exportTimeoutMs;
 
     @Operation(summary = "Book a parking spot with immediate payment (main flow)")
     @PostMapping("/book/{spotId}")
-    public ResponseEntity<Rent> bookSpot(@PathVariable Long spotId) {
+    public ResponseEntity<RentResponse> bookSpot(@PathVariable Long spotId) {
 
         Rent rent = rentService.bookSpot(spotId);
 
         // Websocket notification only after rent save
         try {
-            webSocketService.notifyParkingSpotsChanged();
+            webSocketService.notifySpotChanged(spotId, false);
         } catch (Exception e) {
             // Websocket error should not brake successful rent
             log.error("WebSocket notification failed", e);
         }
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(rent);
+        // The spot was loaded when it was claimed, so mapping needs no further queries.
+        return ResponseEntity.status(HttpStatus.CREATED).body(RentResponse.from(rent));
     }
 
     @Operation(summary = "Cancel a rent (free up spot, no refund)")
     @PostMapping("/cancel/{rentId}")
     public ResponseEntity<Void> cancelRent(@PathVariable Long rentId) {
-        // Retrieves the rent by ID.
-        Rent rent = rentRepository.findById(rentId)
-                .orElseThrow(() -> new RuntimeException("Rent not found"));
+        // Ownership and state checks, freeing the spot and the availability index
+        // are all handled by the service within one transaction.
+        Rent rent = rentService.cancelRent(rentId);
 
-        User currentUser = getCurrentUser();
-
-        // Only the owner of the rent can cancel it.
-        if (!rent.getUser().getId().equals(currentUser.getId())) {
-            throw new IllegalStateException("You can only cancel your own rent");
-        }
-
-        if (!rent.isActive()) {
-            throw new IllegalStateException("Rent is already inactive");
+        try {
+            webSocketService.notifySpotChanged(rent.getParkingSpot().getId(), true);
+        } catch (Exception e) {
+            log.error("WebSocket notification failed", e);
         }
 
-        // Marks rent as inactive and frees up the parking spot.
-        rent.setActive(false);
-        rent.getParkingSpot().setAvailable(true);
+        return ResponseEntity.noContent().build(); // 204 — no content
+    }
 
-        rentRepository.save(rent);
-        parkingSpotRepository.save(rent.getParkingSpot());
-        webSocketService.notifyParkingSpotsChanged();
 
-        return ResponseEntity.noContent().build(); // 204 — no content
+    @Operation(summary = "Reserve a parking spot for a future period")
+    @PostMapping("/reserve/{spotId}")
+    public ResponseEntity<RentResponse> reserveSpot(
+            @PathVariable Long spotId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime
+    ) {
+        // The spot stays available until the reservation starts, so there is nothing to notify yet;
+        // clients are notified when the reservation is activated.
+        Rent rent = rentService.reserveSpot(spotId, startTime, endTime);
+        return ResponseEntity.status(HttpStatus.CREATED).body(RentResponse.from(rent));
     }
 
+    @Operation(summary = "Cancel a reservation that has not started yet")
+    @PostMapping("/cancel-reservation/{rentId}")
+    public ResponseEntity<Void> cancelReservation(@PathVariable Long rentId) {
+        rentService.cancelReservation(rentId);
+        return ResponseEntity.noContent().build();
+    }
 
     @Operation(summary = "Get my current active rent")
     @GetMapping("/my-active")
-    public ResponseEntity<Rent> getMyActiveRent() {
-        // Retrieves the currently authenticated user.
-        User user = getCurrentUser();
+    public ResponseEntity<RentResponse> getMyActiveRent() {
+        // Retrieves the currently authenticated user's id straight from the token principal.
+        Long userId = currentUserProvider.currentUserId();
 
-        // Finds the active rent for the user.
-        Optional<Rent> activeRent = rentRepository.findTopByUserIdAndActiveTrue(user.getId());
+        // Finds the active rent for the user, fetched together with its spot in one query.
+        Optional<Rent> activeRent = rentRepository.findTopByUserIdAndActiveTrue(userId);
 
         // Returns the active rent or 204 if none exists.
         return activeRent
-                .map(ResponseEntity::ok)
+                .map(rent -> ResponseEntity.ok(RentResponse.from(rent)))
                 .orElse(ResponseEntity.noContent().build());
     }
 
+    @Operation(summary = "Export the current user's rent history as newline-delimited JSON (streamed)")
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportRents(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletRequest request
+    ) {
+        // The current user's rents started within [from, to); both bounds are optional.
+        Long userId = currentUserProvider.currentUserId();
+        LocalDateTime start = exportStart(from);
+        LocalDateTime end = exportEnd(to);
+        return export(request, out -> rentExportService.exportNdjson(userId, start, end, out));
+    }
+
+    @Operation(summary = "Export every user's rent history as newline-delimited JSON (streamed, admins only)")
+    @GetMapping(value = "/export/all", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportAllRents(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletRequest request
+    ) {
+        // Restricted to ROLE_ADMIN in SecurityConfig.
+        LocalDateTime start = exportStart(from);
+        LocalDateTime end = exportEnd(to);
+        return export(request, out -> rentExportService.exportAllNdjson(start, end, out));
+    }
+
+    // The body is written on an async thread while rows are read from the database cursor.
+    // Long exports get their own timeout; other async requests keep the default one.
+    private ResponseEntity<StreamingResponseBody> export(HttpServletRequest request, StreamingResponseBody body) {
+        AsyncTimeoutConfig.setTimeout(request, exportTimeoutMs);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    private static LocalDateTime exportStart(LocalDateTime from) {
+        return from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+    }
+
+    private static LocalDateTime exportEnd(LocalDateTime to) {
+        return to != null ? to : LocalDateTime.now();
+    }
+
 }
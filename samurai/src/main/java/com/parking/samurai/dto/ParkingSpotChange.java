@@ -0,0 +1,15 @@
+package com.parking.samurai.dto;
+
+/**
+* Data Transfer Object describing a single parking spot availability change.
+* Broadcast to WebSocket subscribers so clients can patch their local state
+* instead of re-fetching the full spot list.
+* The version increases monotonically per change; a gap tells the client it missed
+* an update and should resync from GET /api/v1/parking-spots.
+*/
+
+public record ParkingSpotChange(
+        long version,
+        Long spotId,
+        boolean available
+) {}
@@ -0,0 +1,15 @@
+package com.parking.samurai.dto;
+
+import java.math.BigDecimal;
+
+/**
+* Optional filters for the paginated parking spot listing.
+* Every field may be null, meaning "do not filter on this attribute".
+*/
+
+public record ParkingSpotFilter(
+        String locationPrefix,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Boolean available
+) {}
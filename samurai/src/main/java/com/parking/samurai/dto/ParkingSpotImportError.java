@@ -0,0 +1,12 @@
+package com.parking.samurai.dto;
+
+/**
+* A rejected row of a bulk parking spot import.
+* line is the 1-based line number in the uploaded file; location is null if it could not be read.
+*/
+
+public record ParkingSpotImportError(
+        long line,
+        String location,
+        String message
+) {}
@@ -0,0 +1,16 @@
+package com.parking.samurai.dto;
+
+import java.util.List;
+
+/**
+* Outcome of a bulk parking spot import.
+* errors lists rejected rows in file order, capped at the configured maximum;
+* errorsTruncated is true if more rows were rejected than are listed.
+*/
+
+public record ParkingSpotImportResult(
+        int imported,
+        int rejected,
+        List<ParkingSpotImportError> errors,
+        boolean errorsTruncated
+) {}
@@ -0,0 +1,14 @@
+package com.parking.samurai.dto;
+
+import java.math.BigDecimal;
+
+/**
+* One parking spot as read from a bulk import file (CSV or NDJSON).
+* available is optional and defaults to true.
+*/
+
+public record ParkingSpotImportRow(
+        String location,
+        BigDecimal pricePerHour,
+        Boolean available
+) {}
@@ -0,0 +1,13 @@
+package com.parking.samurai.dto;
+
+import java.util.List;
+
+/**
+* One page of the keyset-paginated parking spot listing.
+* nextCursor is the id to pass as "after" for the next page, or null on the last page.
+*/
+
+public record ParkingSpotPage(
+        List<ParkingSpotView> items,
+        Long nextCursor
+) {}
@@ -0,0 +1,27 @@
+package com.parking.samurai.dto;
+
+import com.parking.samurai.entity.ParkingSpot;
+
+import java.math.BigDecimal;
+
+/**
+* Immutable, read-only view of a parking spot.
+* Carries exactly the fields exposed by the API, without the JPA entity and its rents collection,
+* so it can be cached and shared between threads safely.
+*/
+
+public record ParkingSpotView(
+        Long id,
+        String location,
+        BigDecimal pricePerHour,
+        boolean available
+) {
+
+    public static ParkingSpotView from(ParkingSpot spot) {
+        return new ParkingSpotView(spot.getId(), spot.getLocation(), spot.getPricePerHour(), spot.isAvailable());
+    }
+
+    public ParkingSpotView withAvailable(boolean available) {
+        return available == this.available ? this : new ParkingSpotView(id, location, pricePerHour, available);
+    }
+}
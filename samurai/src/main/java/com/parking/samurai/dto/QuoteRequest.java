@@ -0,0 +1,19 @@
+package com.parking.samurai.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+* Batch price quote request: which spots to price and for how long, starting now.
+* Spots are given either as explicit spotIds or by a filter (all spots if both are null);
+* a filter also narrows explicit ids. Exactly one of endTime and durationMinutes must be set.
+* limit keeps only the cheapest quotes, e.g. 1 for "cheapest available spot".
+*/
+
+public record QuoteRequest(
+        List<Long> spotIds,
+        ParkingSpotFilter filter,
+        LocalDateTime endTime,
+        Integer durationMinutes,
+        Integer limit
+) {}
@@ -0,0 +1,18 @@
+package com.parking.samurai.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+* Result of a batch price quote. Quotes are sorted by total price, cheapest first, then by spot id.
+* version is the spot snapshot version the quotes were computed from (see X-Parking-Spots-Version);
+* unknownSpotIds lists requested ids that do not exist.
+*/
+
+public record QuoteResponse(
+        long version,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        List<SpotQuote> quotes,
+        List<Long> unknownSpotIds
+) {}
@@ -0,0 +1,24 @@
+package com.parking.samurai.dto;
+
+import com.parking.samurai.entity.Rent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+* Flat, read-only row of the rent history export.
+* Built directly by a JPQL constructor expression, so exported rents never enter
+* the persistence context and references are exported as plain ids.
+*/
+
+public record RentExportRow(
+        Long id,
+        Long spotId,
+        Long userId,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        boolean active,
+        BigDecimal priceAtRentTime,
+        BigDecimal totalPrice,
+        Rent.PaymentStatus paymentStatus
+) {}
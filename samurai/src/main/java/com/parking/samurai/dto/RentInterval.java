@@ -0,0 +1,15 @@
+package com.parking.samurai.dto;
+
+import java.time.LocalDateTime;
+
+/**
+* Period [startTime, blockedUntil) during which a rent holds its spot.
+* Projected straight from the rents table to load the ReservationIndex without entities.
+*/
+
+public record RentInterval(
+        Long rentId,
+        Long spotId,
+        LocalDateTime startTime,
+        LocalDateTime blockedUntil
+) {}
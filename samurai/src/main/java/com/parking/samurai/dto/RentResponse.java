@@ -0,0 +1,44 @@
+package com.parking.samurai.dto;
+
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.entity.Rent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+* Flat API representation of a Rent.
+* Carries the spot's id and location instead of the nested entity, so serializing a rent
+* never touches a lazy association and the response does not depend on an open session.
+*/
+
+public record RentResponse(
+        Long id,
+        Long spotId,
+        String spotLocation,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        boolean active,
+        boolean reserved,
+        BigDecimal priceAtRentTime,
+        BigDecimal totalPrice,
+        Rent.PaymentStatus paymentStatus
+) {
+
+    // The rent's spot must already be loaded (claimed in the same transaction or fetched with the rent).
+    public static RentResponse from(Rent rent) {
+        ParkingSpot spot = rent.getParkingSpot();
+        return new RentResponse(
+                rent.getId(),
+                spot.getId(),
+                spot.getLocation(),
+                rent.getStartTime(),
+                rent.getEndTime(),
+                rent.isActive(),
+                rent.isReserved(),
+                rent.getPriceAtRentTime(),
+                rent.getTotalPrice(),
+                rent.getPaymentStatus()
+        );
+    }
+}
@@ -0,0 +1,11 @@
+package com.parking.samurai.dto;
+
+/**
+* Id and availability of a parking spot, projected straight from parking_spots
+* to rebuild the SpotAvailabilityIndex without loading entities.
+*/
+
+public record SpotAvailability(
+        Long id,
+        boolean available
+) {}
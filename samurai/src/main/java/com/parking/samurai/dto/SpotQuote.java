@@ -0,0 +1,16 @@
+package com.parking.samurai.dto;
+
+import java.math.BigDecimal;
+
+/**
+* Price of one parking spot for the period of a QuoteRequest.
+* available is true only if the spot is free now and not booked for any part of the period.
+*/
+
+public record SpotQuote(
+        Long spotId,
+        String location,
+        BigDecimal pricePerHour,
+        boolean available,
+        BigDecimal totalPrice
+) {}
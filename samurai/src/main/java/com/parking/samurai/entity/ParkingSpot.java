@@ -28,10 +28,11 @@ public class ParkingSpot {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parking_spot_seq")
-    @SequenceGenerator(name = "parking_spot_seq", sequenceName = "parking_spot_seq", allocationSize = 1)
+    @SequenceGenerator(name = "parking_spot_seq", sequenceName = "parking_spot_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Location is required")
+    @Column(nullable = false, unique = true)
     private String location;  // Example: "A-15", "B-3"
 
     @Positive(message = "Price must be positive")
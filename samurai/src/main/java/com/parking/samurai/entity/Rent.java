@@ -27,7 +27,7 @@ public class Rent {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rent_seq")
-    @SequenceGenerator(name = "rent_seq", sequenceName = "rent_seq", allocationSize = 1)
+    @SequenceGenerator(name = "rent_seq", sequenceName = "rent_seq", allocationSize = 50)
     private Long id;
 
     // Reference to the rented parking spot.
@@ -50,6 +50,17 @@ public class Rent {
     @Builder.Default
     private boolean active = true;
 
+    // Indicates an advance reservation that has not started yet.
+    // A reserved rent is not active: it holds the spot for [startTime, endTime) without occupying it,
+    // and becomes active when its start time arrives (see ReservationActivator).
+    @Builder.Default
+    private boolean reserved = false;
+
+    // End of the period this rent holds its spot: endTime, or start time plus the "rent now" timeout.
+    // Active and reserved rents of a spot never overlap on [startTime, blockedUntil).
+    @Column(nullable = false)
+    private LocalDateTime blockedUntil;
+
     // Price per hour at the moment of rent creation.
     // Stored to preserve historical pricing even if spot price changes later.
     private java.math.BigDecimal priceAtRentTime;
@@ -68,7 +79,7 @@ public class Rent {
     private PaymentStatus paymentStatus = PaymentStatus.PENDING;
 
     //Total price
-    // TODO: Add automatic price calculation based on rent duration
+    // Set by PricingEngine when the rent is created (minimum charge for open-ended rents).
     private BigDecimal totalPrice;
 
     //Payment states for a rent lifecycle.
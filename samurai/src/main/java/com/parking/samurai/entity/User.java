@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
@@ -12,8 +13,7 @@ import java.util.List;
 /**
 * JPA entity representing an application user.
 * Implements Spring Security's UserDetails interface to integrate with authentication and authorization.
-* Stores credentials and basic profile information.
-* Designed to be extended later with roles and permissions.
+* Stores credentials, basic profile information and the user's role.
 */
 
 @Entity
@@ -27,23 +27,28 @@ public class User implements UserDetails {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
-    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 1)
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
-    @Column(unique = true)
+    @Column(nullable = false, unique = true)
     private String username;
 
     // Encrypted user password (stored as a hash).
     @NotBlank
     private String password;
 
-    // Spring Security authorities.
-    // Currently returns an empty list (no roles assigned).
-    // TODO: Can be extended later with ROLE_USER, ROLE_ADMIN, etc.
+    // New users are plain users; admins are promoted in the database (see V7__user_roles.sql).
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Role role = Role.USER;
+
+    // Spring Security authorities: the role as ROLE_USER or ROLE_ADMIN.
+    // They are embedded in issued tokens, so a role change applies from the next login.
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of();
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
     }
 
 
@@ -60,4 +65,9 @@ public class User implements UserDetails {
 
     @Override
     public boolean isEnabled() { return true; }
-}
\ No newline at end of file
+
+    // Roles, stored as STRING.
+    public enum Role {
+        USER, ADMIN
+    }
+}
@@ -0,0 +1,18 @@
+package com.parking.samurai.event;
+
+import com.parking.samurai.dto.ParkingSpotChange;
+
+import java.util.List;
+
+/**
+* Application event published by WebSocketService for every flushed batch of spot changes.
+* Lets in-process consumers (snapshot cache, streams) follow the exact same change feed
+* and version numbers that WebSocket clients receive.
+*/
+
+public record ParkingSpotChangesEvent(List<ParkingSpotChange> changes) {
+
+    public long lastVersion() {
+        return changes.getLast().version();
+    }
+}
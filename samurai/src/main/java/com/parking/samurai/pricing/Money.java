@@ -0,0 +1,24 @@
+package com.parking.samurai.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+* Conversions between BigDecimal amounts and long minor units (2 decimal places).
+*/
+
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMinor(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+}
@@ -0,0 +1,42 @@
+package com.parking.samurai.pricing;
+
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.entity.Rent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+* Computes parking prices.
+* The hot path works in long minor units (cents) and never allocates; BigDecimal is only
+* used at the boundary, when a price is read from or written to an entity.
+*/
+
+public interface PricingEngine {
+
+    // Price in minor units for parking at a spot over [start, end).
+    // location selects the zone tariff; a null end means an open-ended "rent now" session,
+    // which is charged the minimum billable duration.
+    long priceMinor(String location, long hourlyRateMinor, LocalDateTime start, LocalDateTime end);
+
+    // Throws IllegalStateException for a spot without a price: the column is nullable and such
+    // a spot cannot be charged for.
+    default BigDecimal price(ParkingSpot spot, LocalDateTime start, LocalDateTime end) {
+        if (spot.getPricePerHour() == null) {
+            throw new IllegalStateException("Parking spot " + spot.getId() + " has no price per hour");
+        }
+        long minor = priceMinor(spot.getLocation(), Money.toMinor(spot.getPricePerHour()), start, end);
+        return Money.fromMinor(minor);
+    }
+
+    // Final price of an open-ended rent that ended at end, at the hourly price it was booked at.
+    // Such rents are charged only the minimum up front and settled when they are cancelled or expire.
+    default BigDecimal settle(Rent rent, LocalDateTime end) {
+        if (rent.getPriceAtRentTime() == null) {
+            return price(rent.getParkingSpot(), rent.getStartTime(), end);
+        }
+        long minor = priceMinor(rent.getParkingSpot().getLocation(), Money.toMinor(rent.getPriceAtRentTime()),
+                rent.getStartTime(), end);
+        return Money.fromMinor(minor);
+    }
+}
@@ -0,0 +1,221 @@
+package com.parking.samurai.pricing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+* Tariff-based PricingEngine with minute-level billing.
+* Time-of-day bands scale the spot's hourly rate, zones (picked by location prefix, e.g. "A" for "A-15")
+* scale it again, and the charge for each calendar day can be capped at a number of hours at the
+* zone's rate (the hourly rate times the zone multiplier).
+* All tariffs are compiled at startup into per-zone prefix sums over the 1440 minutes of a day,
+* so any period costs a constant number of long operations, whatever its length.
+*
+* <p>Configuration (multipliers are decimals, times are HH:mm, minutes outside every band use 1.0):
+* parking.pricing.bands=00:00-07:00=0.5,07:00-19:00=1.0,19:00-24:00=0.75
+* parking.pricing.zones=A=1.0,VIP=2.0@12   (zone=multiplier, optionally @ its own daily cap in hours)
+* parking.pricing.daily-cap-hours=10        (0 = no cap)
+* parking.pricing.minimum-minutes=60</p>
+*/
+
+@Component
+public class TariffPricingEngine implements PricingEngine {
+
+    private static final int MINUTES_PER_DAY = 1440;
+    private static final long BASIS_POINTS = 10_000;
+    // Table entries are in band basis points x zone basis points per minute.
+    private static final long DIVISOR = 60 * BASIS_POINTS * BASIS_POINTS;
+
+    private final ZoneTariff defaultTariff;
+    private final ZoneTariff[] zoneTariffs;
+    private final long minimumMinutes;
+
+    public TariffPricingEngine(@Value("${parking.pricing.bands:}") String bands,
+                               @Value("${parking.pricing.zones:}") String zones,
+                               @Value("${parking.pricing.daily-cap-hours:0}") long dailyCapHours,
+                               @Value("${parking.pricing.minimum-minutes:60}") long minimumMinutes) {
+        if (dailyCapHours < 0 || minimumMinutes < 0) {
+            throw new IllegalStateException("Pricing daily cap and minimum minutes must not be negative");
+        }
+        long[] bandBasisPoints = parseBands(bands);
+        this.defaultTariff = new ZoneTariff("", compile(bandBasisPoints, BASIS_POINTS), capBasisPoints(dailyCapHours, BASIS_POINTS));
+        this.zoneTariffs = parseZones(zones, bandBasisPoints, dailyCapHours);
+        this.minimumMinutes = minimumMinutes;
+    }
+
+    @Override
+    public long priceMinor(String location, long hourlyRateMinor, LocalDateTime start, LocalDateTime end) {
+        long from = epochMinute(start);
+        long to = end == null ? from : epochMinute(end);
+        // Started minutes are billed in full.
+        if (end != null && (end.getSecond() != 0 || end.getNano() != 0)) {
+            to++;
+        }
+        if (to - from < minimumMinutes) {
+            to = from + minimumMinutes;
+        }
+        if (to <= from) {
+            return 0;
+        }
+
+        ZoneTariff tariff = tariffFor(location);
+        long firstDay = Math.floorDiv(from, MINUTES_PER_DAY);
+        long lastDay = Math.floorDiv(to - 1, MINUTES_PER_DAY);
+        int fromMinute = (int) (from - firstDay * MINUTES_PER_DAY);
+        int toMinute = (int) (to - lastDay * MINUTES_PER_DAY);
+
+        // Exact arithmetic: an extreme hourly rate or period fails instead of wrapping around.
+        try {
+            if (firstDay == lastDay) {
+                return tariff.charge(hourlyRateMinor, fromMinute, toMinute);
+            }
+            long total = tariff.charge(hourlyRateMinor, fromMinute, MINUTES_PER_DAY);
+            total = Math.addExact(total,
+                    Math.multiplyExact(lastDay - firstDay - 1, tariff.charge(hourlyRateMinor, 0, MINUTES_PER_DAY)));
+            return Math.addExact(total, tariff.charge(hourlyRateMinor, 0, toMinute));
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("Price at " + hourlyRateMinor + " minor units per hour from "
+                    + start + " to " + end + " exceeds the supported range", e);
+        }
+    }
+
+    // Longest matching zone prefix followed by '-' or the end of the location; compares
+    // characters in place so no substring is created.
+    private ZoneTariff tariffFor(String location) {
+        if (location == null) {
+            return defaultTariff;
+        }
+        for (ZoneTariff tariff : zoneTariffs) {
+            int length = tariff.zone.length();
+            if (location.regionMatches(true, 0, tariff.zone, 0, length)
+                    && (location.length() == length || location.charAt(length) == '-')) {
+                return tariff;
+            }
+        }
+        return defaultTariff;
+    }
+
+    private static long epochMinute(LocalDateTime time) {
+        return time.toLocalDate().toEpochDay() * MINUTES_PER_DAY + time.getHour() * 60L + time.getMinute();
+    }
+
+    // Prefix sums: table[m] is the weight of minutes [0, m) of a day.
+    // Multipliers too large for a day's weight to fit in a long are rejected at startup.
+    private static long[] compile(long[] bandBasisPoints, long zoneBasisPoints) {
+        long[] table = new long[MINUTES_PER_DAY + 1];
+        try {
+            for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+                table[minute + 1] = Math.addExact(table[minute], Math.multiplyExact(bandBasisPoints[minute], zoneBasisPoints));
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("Pricing multipliers are too large", e);
+        }
+        return table;
+    }
+
+    private static long[] parseBands(String bands) {
+        long[] basisPoints = new long[MINUTES_PER_DAY];
+        Arrays.fill(basisPoints, BASIS_POINTS);
+        for (String band : entries(bands)) {
+            int equals = band.lastIndexOf('=');
+            int dash = band.indexOf('-');
+            if (equals < 0 || dash < 0 || dash > equals) {
+                throw new IllegalStateException("Invalid pricing band '" + band + "', expected HH:mm-HH:mm=multiplier");
+            }
+            int from = minuteOfDay(band.substring(0, dash));
+            int to = minuteOfDay(band.substring(dash + 1, equals));
+            long multiplier = basisPoints(band.substring(equals + 1), band);
+            if (to <= from) {
+                throw new IllegalStateException("Pricing band '" + band + "' must end after it starts");
+            }
+            Arrays.fill(basisPoints, from, to, multiplier);
+        }
+        return basisPoints;
+    }
+
+    private static ZoneTariff[] parseZones(String zones, long[] bandBasisPoints, long defaultCapHours) {
+        List<ZoneTariff> tariffs = new ArrayList<>();
+        for (String zone : entries(zones)) {
+            int equals = zone.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalStateException("Invalid pricing zone '" + zone + "', expected zone=multiplier[@capHours]");
+            }
+            String value = zone.substring(equals + 1);
+            long capHours = defaultCapHours;
+            int at = value.indexOf('@');
+            if (at >= 0) {
+                capHours = Long.parseLong(value.substring(at + 1).trim());
+                value = value.substring(0, at);
+            }
+            long zoneBasisPoints = basisPoints(value, zone);
+            tariffs.add(new ZoneTariff(zone.substring(0, equals).trim(),
+                    compile(bandBasisPoints, zoneBasisPoints), capBasisPoints(capHours, zoneBasisPoints)));
+        }
+        // Longest prefix wins when zones share a prefix.
+        tariffs.sort((a, b) -> b.zone.length() - a.zone.length());
+        return tariffs.toArray(ZoneTariff[]::new);
+    }
+
+    private static List<String> entries(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .toList();
+    }
+
+    private static int minuteOfDay(String time) {
+        String[] parts = time.trim().split(":");
+        int hour = Integer.parseInt(parts[0]);
+        int minute = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+        int minuteOfDay = hour * 60 + minute;
+        if (minute < 0 || minute > 59 || minuteOfDay < 0 || minuteOfDay > MINUTES_PER_DAY) {
+            throw new IllegalStateException("Invalid time of day '" + time + "' in pricing configuration");
+        }
+        return minuteOfDay;
+    }
+
+    private static long basisPoints(String multiplier, String entry) {
+        BigDecimal value = new BigDecimal(multiplier.trim());
+        if (value.signum() < 0) {
+            throw new IllegalStateException("Negative multiplier in pricing entry '" + entry + "'");
+        }
+        return value.movePointRight(4).longValue();
+    }
+
+    // Daily cap in hourly rates, in basis points: cap hours at the zone multiplier. 0 = no cap.
+    private static long capBasisPoints(long capHours, long zoneBasisPoints) {
+        if (capHours < 0) {
+            throw new IllegalStateException("Pricing daily cap must not be negative");
+        }
+        try {
+            return Math.multiplyExact(capHours, zoneBasisPoints);
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("Pricing daily cap of " + capHours + " hours is too large", e);
+        }
+    }
+
+    // Compiled tariff of one zone.
+    private record ZoneTariff(String zone, long[] table, long capBasisPoints) {
+
+        // Charge for minutes [fromMinute, toMinute) of one day, rounded half up to a minor unit
+        // and limited by the daily cap. Throws ArithmeticException instead of overflowing.
+        long charge(long hourlyRateMinor, int fromMinute, int toMinute) {
+            long weighted = Math.multiplyExact(hourlyRateMinor, table[toMinute] - table[fromMinute]);
+            long charge = Math.addExact(weighted, DIVISOR / 2) / DIVISOR;
+            if (capBasisPoints <= 0) {
+                return charge;
+            }
+            long cap = Math.addExact(Math.multiplyExact(hourlyRateMinor, capBasisPoints), BASIS_POINTS / 2) / BASIS_POINTS;
+            return Math.min(charge, cap);
+        }
+    }
+}
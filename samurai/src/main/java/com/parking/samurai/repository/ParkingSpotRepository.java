@@ -1,19 +1,71 @@
 package com.parking.samurai.repository;
 
+import com.parking.samurai.dto.ParkingSpotView;
+import com.parking.samurai.dto.SpotAvailability;
 import com.parking.samurai.entity.ParkingSpot;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 /**
 * Repository interface for managing ParkingSpot entities.
 * Extends JpaRepository to provide standard CRUD operations.
-* Includes a derived query method to retrieve parking spots by availability status.
+* Includes an id/availability projection for the availability index
+* and guarded single-statement updates used to claim and release spots atomically.
+* The keyset page query projects straight into ParkingSpotView, so listing never
+* materializes entities or their rents collection.
 */
 
 @Repository
 public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long> {
 
-    List<ParkingSpot> findByAvailable(boolean available);
-}
\ No newline at end of file
+    // Id and availability of every spot in one consistent read, for the availability index.
+    @Query("select new com.parking.samurai.dto.SpotAvailability(s.id, s.available) from ParkingSpot s")
+    List<SpotAvailability> findAllAvailability();
+
+    // Keyset pagination on id: returns spots with id > after, in id order, matching the optional filters.
+    // The page size comes from the Pageable; always request page 0.
+    @Query("""
+            select new com.parking.samurai.dto.ParkingSpotView(s.id, s.location, s.pricePerHour, s.available)
+            from ParkingSpot s
+            where s.id > :after
+              and (:locationPattern is null or s.location like :locationPattern escape '\\')
+              and (:minPrice is null or s.pricePerHour >= :minPrice)
+              and (:maxPrice is null or s.pricePerHour <= :maxPrice)
+              and (:available is null or s.available = :available)
+            order by s.id
+            """)
+    List<ParkingSpotView> findPage(@Param("after") Long after,
+                                   @Param("locationPattern") String locationPattern,
+                                   @Param("minPrice") BigDecimal minPrice,
+                                   @Param("maxPrice") BigDecimal maxPrice,
+                                   @Param("available") Boolean available,
+                                   Pageable page);
+
+    // Marks the spot as taken only if it is still available.
+    // Returns the number of updated rows: 1 if the claim won, 0 if the spot is taken or missing.
+    @Modifying
+    @Query("update ParkingSpot s set s.available = false where s.id = :id and s.available = true")
+    int claimIfAvailable(@Param("id") Long id);
+
+    // Marks the spot as available again. Returns the number of updated rows.
+    @Modifying
+    @Query("update ParkingSpot s set s.available = true where s.id = :id")
+    int release(@Param("id") Long id);
+
+    // Set-based variant of release() used by bulk expiry.
+    @Modifying
+    @Query("update ParkingSpot s set s.available = true where s.id in :ids")
+    int releaseAll(@Param("ids") Collection<Long> ids);
+
+    // Which of the given locations already exist; backed by the location index.
+    @Query("select s.location from ParkingSpot s where s.location in :locations")
+    List<String> findExistingLocations(@Param("locations") Collection<String> locations);
+}
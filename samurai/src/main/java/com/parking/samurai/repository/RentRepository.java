@@ -1,12 +1,25 @@
 package com.parking.samurai.repository;
 
+import com.parking.samurai.dto.RentExportRow;
+import com.parking.samurai.dto.RentInterval;
 import com.parking.samurai.entity.Rent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
 * Repository interface for managing Rent entities.
@@ -21,12 +34,145 @@ public interface RentRepository extends JpaRepository<Rent, Long> {
     // Useful for checking whether a spot is currently rented.
     List<Rent> findByParkingSpotIdAndActive(Long spotId, boolean active);
 
-    // Finds all active rents without an end time that started before the given cutoff.
-    // Can be used for scheduled tasks (e.g. auto-expiration or timeout handling).
-    List<Rent> findByActiveTrueAndEndTimeIsNullAndStartTimeBefore(LocalDateTime cutoff);
+    // Due rents with their spots, locked (select ... for update) for entity-mode expiry.
+    // A rent cancelled while this waited for its lock no longer matches, so its spot, which may have
+    // been booked again, is left alone. Must be called inside a transaction.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select r from Rent r join fetch r.parkingSpot
+            where r.active = true
+              and ((r.endTime is null and r.startTime < :cutoff) or r.endTime <= :now)
+            order by r.id
+            """)
+    List<Rent> lockDueRents(@Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now);
+
+    // Same as above, restricted to the given rent ids.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select r from Rent r join fetch r.parkingSpot
+            where r.id in :ids
+              and r.active = true
+              and ((r.endTime is null and r.startTime < :cutoff) or r.endTime <= :now)
+            order by r.id
+            """)
+    List<Rent> lockDueRentsIn(@Param("ids") Collection<Long> ids,
+                              @Param("cutoff") LocalDateTime cutoff,
+                              @Param("now") LocalDateTime now);
+
+    // A rent with its spot in one query, for cancelling it.
+    @EntityGraph(attributePaths = "parkingSpot")
+    Optional<Rent> findWithParkingSpotById(Long id);
+
+    // Locks the still-active open-ended rents among the given ids, with their spots, so bulk
+    // expiry can settle them before deactivating them. A rent cancelled meanwhile no longer matches.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select r from Rent r join fetch r.parkingSpot
+            where r.id in :ids and r.active = true and r.endTime is null
+            order by r.id
+            """)
+    List<Rent> lockOpenEndedRentsIn(@Param("ids") Collection<Long> ids);
+
+    // Finds all currently active rents. Used to load the expiry engine at startup.
+    List<Rent> findByActiveTrue();
+
+    // Finds the still-active rents among the given ids, with their spots,
+    // so expiring them does not lazily load each spot one by one.
+    @EntityGraph(attributePaths = "parkingSpot")
+    List<Rent> findByIdInAndActiveTrue(Collection<Long> ids);
+
+    // Ids of active rents that are due: "rent now" sessions started before the cutoff
+    // and fixed-period rents past their end time. Page size bounds one bulk-expiry chunk.
+    @Query("""
+            select r.id from Rent r
+            where r.active = true
+              and ((r.endTime is null and r.startTime < :cutoff) or r.endTime <= :now)
+            order by r.id
+            """)
+    List<Long> findDueRentIds(@Param("cutoff") LocalDateTime cutoff,
+                              @Param("now") LocalDateTime now,
+                              Pageable chunk);
+
+    // Same as above, restricted to the given rent ids.
+    @Query("""
+            select r.id from Rent r
+            where r.id in :ids
+              and r.active = true
+              and ((r.endTime is null and r.startTime < :cutoff) or r.endTime <= :now)
+            """)
+    List<Long> findDueRentIdsIn(@Param("ids") Collection<Long> ids,
+                                @Param("cutoff") LocalDateTime cutoff,
+                                @Param("now") LocalDateTime now);
+
+    // Set-based deactivation used by bulk expiry. Returns the spot ids of the rows it actually
+    // deactivated: a rent cancelled after it was selected is skipped, and so is its spot, which may
+    // already be held by a new rent. Native because JPQL has no UPDATE ... RETURNING.
+    @Query(value = """
+            update rents set active = false
+            where id in (:ids) and active
+            returning spot_id
+            """, nativeQuery = true)
+    List<Long> deactivateAllReturningSpotIds(@Param("ids") Collection<Long> ids);
+
+    // Forward-only stream of the user's rents started within [from, to), in id order, for the NDJSON export.
+    // Rows are DTOs (never managed), fetched from a server-side cursor in bounded batches.
+    // Must be consumed inside a transaction and closed afterwards.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+            select new com.parking.samurai.dto.RentExportRow(
+                r.id, r.parkingSpot.id, r.user.id, r.startTime, r.endTime, r.active,
+                r.priceAtRentTime, r.totalPrice, r.paymentStatus)
+            from Rent r
+            where r.user.id = :userId and r.startTime >= :from and r.startTime < :to
+            order by r.id
+            """)
+    Stream<RentExportRow> streamForExport(@Param("userId") Long userId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+
+    // Same as streamForExport, for every user's rents: the full export for finance.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+            select new com.parking.samurai.dto.RentExportRow(
+                r.id, r.parkingSpot.id, r.user.id, r.startTime, r.endTime, r.active,
+                r.priceAtRentTime, r.totalPrice, r.paymentStatus)
+            from Rent r
+            where r.startTime >= :from and r.startTime < :to
+            order by r.id
+            """)
+    Stream<RentExportRow> streamAllForExport(@Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to);
+
+    // Periods held by active rents and reservations that have not ended yet, for the ReservationIndex.
+    @Query("""
+            select new com.parking.samurai.dto.RentInterval(r.id, r.parkingSpot.id, r.startTime, r.blockedUntil)
+            from Rent r
+            where (r.active = true or r.reserved = true) and r.blockedUntil > :now
+            """)
+    List<RentInterval> findBlockingIntervals(@Param("now") LocalDateTime now);
+
+    // Reservations waiting for activation, loaded into the ReservationActivator at startup.
+    List<Rent> findByReservedTrue();
+
+    // Ids of reservations whose start time has arrived, for the activator's safety sweep.
+    @Query("select r.id from Rent r where r.reserved = true and r.startTime <= :now order by r.id")
+    List<Long> findDueReservationIds(@Param("now") LocalDateTime now, Pageable chunk);
+
+    // A reservation with its spot, if it is still waiting for activation.
+    @EntityGraph(attributePaths = "parkingSpot")
+    Optional<Rent> findByIdAndReservedTrue(Long id);
 
     // Retrieves the current active rent for a specific user, if any.
     // Used to ensure that a user can have only one active rent at a time.
+    @EntityGraph(attributePaths = "parkingSpot")
     Optional<Rent> findTopByUserIdAndActiveTrue(Long userId);
 
 }
\ No newline at end of file
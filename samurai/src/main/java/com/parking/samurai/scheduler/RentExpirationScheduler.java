@@ -1,20 +1,43 @@
 package com.parking.samurai.scheduler;
 
+import com.parking.samurai.cache.SpotAvailabilityIndex;
 import com.parking.samurai.entity.Rent;
+import com.parking.samurai.pricing.PricingEngine;
+import com.parking.samurai.repository.ParkingSpotRepository;
 import com.parking.samurai.repository.RentRepository;
+import com.parking.samurai.service.WebSocketService;
+import com.parking.samurai.util.TransactionCallbacks;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
-* Scheduled component responsible for expiring outdated "rent now" sessions.
-* Periodically checks for active rents without an end time that exceeded the allowed duration.
-* Automatically frees parking spots and updates rent status within a transactional context.
+* Scheduled component responsible for expiring outdated rents.
+* Due rents are normally expired by RentExpiryEngine through expireRents();
+* the periodic sweep here is a low-frequency safety net that catches anything the
+* engine missed (restarts, other nodes, failed batches), both "rent now" sessions
+* that exceeded the allowed duration and fixed-period rents past their end time.
+*
+* <p>In bulk mode (default) rents and their spots are expired with set-based updates,
+* one short transaction per chunk, and the freed spots are published as a single
+* notification. Entity mode loads, locks and updates each Rent within one transaction.
+* In both modes "rent now" sessions, charged only the minimum up front, are settled: they end at
+* their timeout and are charged for that whole period.</p>
+* Each batch that expires something records its duration (parking.rent.expiry.batch)
+* and its size (parking.rent.expiry.batch.size), tagged by mode.
 */
 
 @Component
@@ -23,34 +46,191 @@ import java.util.List;
 public class RentExpirationScheduler {
 
     private final RentRepository rentRepository;
+    private final ParkingSpotRepository parkingSpotRepository;
+    private final SpotAvailabilityIndex availabilityIndex;
+    private final WebSocketService webSocketService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final PricingEngine pricingEngine;
 
-    // Runs every 30 seconds (configurable).
-    // Can be adjusted or moved to application properties if needed.
-    @Scheduled(fixedRate = 30000)
-    @Transactional
+    @Value("${parking.rent.now-timeout-minutes:30}")
+    private long nowTimeoutMinutes;
+
+    @Value("${parking.rent.expiry.bulk:true}")
+    private boolean bulkExpiry;
+
+    @Value("${parking.rent.expiry.chunk-size:1000}")
+    private int chunkSize;
+
+    // Safety sweep, every 5 minutes by default (parking.rent.expiry-sweep-ms).
+    @Scheduled(fixedRateString = "${parking.rent.expiry-sweep-ms:300000}")
     public void expireOldRents() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime cutoff = now.minusMinutes(30); // Configurable timeout (30 minutes)
+        if (bulkExpiry) {
+            List<Long> freedSpotIds = expireDueRentsInBulk();
+            if (!freedSpotIds.isEmpty()) {
+                log.info("Safety sweep freed {} spots", freedSpotIds.size());
+            }
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Integer expired = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime cutoff = now.minusMinutes(nowTimeoutMinutes);
+
+            // Finds and locks active rents that should be expired.
+            List<Rent> expiredRents = rentRepository.lockDueRents(cutoff, now);
 
-        // Finds active rents that should be expired.
-        List<Rent> expiredRents = rentRepository.findByActiveTrueAndEndTimeIsNullAndStartTimeBefore(cutoff);
+            if (!expiredRents.isEmpty()) {
+                log.info("Safety sweep found {} expired rents. Expiring...", expiredRents.size());
+                expireEntities(expiredRents);
+            }
+            return expiredRents.size();
+        });
+        recordBatch("entity", sample, expired);
+    }
 
-        if (expiredRents.isEmpty()) {
+    // Expires the given rents if they are still active and actually due.
+    // Called by RentExpiryEngine when its timing wheel fires.
+    public void expireRents(Collection<Long> rentIds) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusMinutes(nowTimeoutMinutes);
+
+        if (bulkExpiry) {
+            List<Long> freedSpotIds = new ArrayList<>();
+            List<Long> ids = List.copyOf(rentIds);
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                List<Long> freed = expireChunk(() -> rentRepository.findDueRentIdsIn(chunk, cutoff, now));
+                if (freed != null) {
+                    freedSpotIds.addAll(freed);
+                }
+            }
+            publish(freedSpotIds);
             return;
         }
 
-        log.info("Found {} expired 'rent now' sessions. Expiring...", expiredRents.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Integer expired = transactionTemplate.execute(status -> {
+            List<Rent> dueRents = rentRepository.lockDueRentsIn(rentIds, cutoff, now);
+
+            if (!dueRents.isEmpty()) {
+                expireEntities(dueRents);
+            }
+            return dueRents.size();
+        });
+        recordBatch("entity", sample, expired);
+    }
+
+    // Expires every due rent with set-based updates, chunk by chunk,
+    // and returns the ids of the freed parking spots.
+    public List<Long> expireDueRentsInBulk() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusMinutes(nowTimeoutMinutes);
+        PageRequest firstChunk = PageRequest.of(0, chunkSize);
+
+        List<Long> freedSpotIds = new ArrayList<>();
+        while (true) {
+            // Expired rows stop matching the query, so the first page is always the next chunk.
+            List<Long> freed = expireChunk(() -> rentRepository.findDueRentIds(cutoff, now, firstChunk));
+            if (freed == null) {
+                break;
+            }
+            freedSpotIds.addAll(freed);
+        }
+
+        publish(freedSpotIds);
+        return freedSpotIds;
+    }
+
+    // Runs one chunk in its own short transaction: four statements regardless of chunk size,
+    // plus one batched update per JDBC batch of "rent now" sessions to settle.
+    // Returns the freed spot ids, or null if there was nothing left to expire.
+    private List<Long> expireChunk(Supplier<List<Long>> dueRentIds) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<Long> freedSpotIds = transactionTemplate.execute(status -> {
+            List<Long> rentIds = dueRentIds.get();
+            if (rentIds.isEmpty()) {
+                return null;
+            }
+            // Settled under a row lock, so a session cancelled meanwhile keeps the price its
+            // cancel settled, and written before the native update below deactivates it.
+            rentRepository.lockOpenEndedRentsIn(rentIds).forEach(this::settle);
+            rentRepository.flush();
+            // Only spots of rents this update deactivated are released: a rent cancelled since it
+            // was selected may have had its spot booked again by someone else.
+            List<Long> spotIds = rentRepository.deactivateAllReturningSpotIds(rentIds).stream()
+                    .distinct()
+                    .toList();
+            if (!spotIds.isEmpty()) {
+                parkingSpotRepository.releaseAll(spotIds);
+            }
+            return spotIds;
+        });
 
-        for (Rent rent : expiredRents) {
+        // The chunk has committed at this point.
+        if (freedSpotIds != null) {
+            freedSpotIds.forEach(availabilityIndex::markAvailable);
+            recordBatch("bulk", sample, freedSpotIds.size());
+        }
+        return freedSpotIds;
+    }
+
+    // Empty runs are not recorded, so the metrics describe real expiry work only.
+    private void recordBatch(String mode, Timer.Sample sample, Integer size) {
+        if (size == null || size == 0) {
+            return;
+        }
+        sample.stop(Timer.builder("parking.rent.expiry.batch")
+                .description("Duration of a rent expiry batch")
+                .tag("mode", mode)
+                .register(meterRegistry));
+        DistributionSummary.builder("parking.rent.expiry.batch.size")
+                .description("Rents expired by one expiry batch")
+                .tag("mode", mode)
+                .register(meterRegistry)
+                .record(size);
+    }
+
+    // The rents are locked and still active, so each one still holds its spot.
+    private void expireEntities(List<Rent> rents) {
+        List<Long> freedSpotIds = new ArrayList<>();
+        for (Rent rent : rents) {
             rent.setActive(false);
+            if (rent.getEndTime() == null) {
+                settle(rent);
+            }
             if (rent.getParkingSpot() != null) {
                 rent.getParkingSpot().setAvailable(true);
+                availabilityIndex.releaseAfterCommit(rent.getParkingSpot().getId());
+                freedSpotIds.add(rent.getParkingSpot().getId());
             }
         }
 
-        rentRepository.saveAll(expiredRents);
-        log.info("Expired {} sessions", expiredRents.size());
+        rentRepository.saveAll(rents);
+        TransactionCallbacks.afterCommit(() -> publish(freedSpotIds));
         // Explicit saveAll() is not required.
         // Entities are managed by Hibernate and changes are flushed automatically at transaction commit.
     }
-}
\ No newline at end of file
+
+    // A "rent now" session ends at its timeout, even when the expiry runs later,
+    // and is charged for the time up to then.
+    private void settle(Rent rent) {
+        LocalDateTime end = rent.getBlockedUntil();
+        rent.setEndTime(end);
+        rent.setTotalPrice(pricingEngine.settle(rent, end));
+    }
+
+    // Publishes all freed spots as a single notification.
+    private void publish(List<Long> freedSpotIds) {
+        if (freedSpotIds.isEmpty()) {
+            return;
+        }
+        log.info("Expired rents freed {} spots", freedSpotIds.size());
+        try {
+            webSocketService.notifySpotsChanged(freedSpotIds, true);
+        } catch (Exception e) {
+            log.error("WebSocket notification failed", e);
+        }
+    }
+}
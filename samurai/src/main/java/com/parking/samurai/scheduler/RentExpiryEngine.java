@@ -0,0 +1,87 @@
+package com.parking.samurai.scheduler;
+
+import com.parking.samurai.entity.Rent;
+import com.parking.samurai.repository.RentRepository;
+import com.parking.samurai.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+* In-process expiry engine for active rents.
+* Every active Rent is held in a TimingWheel keyed by its due time:
+* the end time for fixed-period rents, or start time plus the "rent now" timeout.
+* The wheel is loaded from the database at startup and fed by the rent service on
+* create and cancel, so spots are freed within about a second of their deadline
+* without polling the rents table. RentExpirationScheduler remains as a safety sweep.
+*/
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RentExpiryEngine {
+
+    private static final long TICK_MILLIS = 1000;
+
+    private final RentRepository rentRepository;
+    private final RentExpirationScheduler expirationScheduler;
+
+    @Value("${parking.rent.now-timeout-minutes:30}")
+    private long nowTimeoutMinutes;
+
+    private final TimingWheel wheel = new TimingWheel(TICK_MILLIS, System.currentTimeMillis());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveRents() {
+        List<Rent> activeRents = rentRepository.findByActiveTrue();
+        for (Rent rent : activeRents) {
+            wheel.schedule(rent.getId(), dueMillis(rent));
+        }
+        log.info("Rent expiry engine loaded {} active rents", activeRents.size());
+    }
+
+    // Registers a newly created rent once its transaction commits.
+    public void schedule(Rent rent) {
+        Long rentId = rent.getId();
+        long dueMillis = dueMillis(rent);
+        TransactionCallbacks.afterCommit(() -> wheel.schedule(rentId, dueMillis));
+    }
+
+    // Removes a cancelled rent once its transaction commits.
+    public void cancel(Long rentId) {
+        TransactionCallbacks.afterCommit(() -> wheel.cancel(rentId));
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void tick() {
+        List<Long> dueRentIds = wheel.advance(System.currentTimeMillis());
+        if (dueRentIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            expirationScheduler.expireRents(dueRentIds);
+        } catch (Exception e) {
+            // The safety sweep in RentExpirationScheduler will pick these rents up later.
+            log.error("Failed to expire {} due rents", dueRentIds.size(), e);
+        }
+    }
+
+    // When a rent starting at startTime is due: its end time, or the "rent now" timeout if it has none.
+    public LocalDateTime dueTime(LocalDateTime startTime, LocalDateTime endTime) {
+        return endTime != null ? endTime : startTime.plusMinutes(nowTimeoutMinutes);
+    }
+
+    private long dueMillis(Rent rent) {
+        LocalDateTime due = dueTime(rent.getStartTime(), rent.getEndTime());
+        return due.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
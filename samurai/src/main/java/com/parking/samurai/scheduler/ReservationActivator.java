@@ -0,0 +1,153 @@
+package com.parking.samurai.scheduler;
+
+import com.parking.samurai.cache.ReservationIndex;
+import com.parking.samurai.cache.SpotAvailabilityIndex;
+import com.parking.samurai.entity.Rent;
+import com.parking.samurai.repository.ParkingSpotRepository;
+import com.parking.samurai.repository.RentRepository;
+import com.parking.samurai.service.WebSocketService;
+import com.parking.samurai.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+* Turns reservations into active rents when their start time arrives.
+* Reservations are held in a TimingWheel keyed by start time, loaded at startup and fed by the
+* rent service, the same way RentExpiryEngine handles due rents. Activation claims the spot,
+* marks the rent active and hands it to RentExpiryEngine for its end time.
+* If the spot is still occupied (the previous rent has not been expired yet) activation is retried
+* a few seconds later; reservations whose period passed without activation lapse.
+* A periodic sweep catches reservations the wheel missed (restarts, other nodes).
+*/
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationActivator {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final long RETRY_MILLIS = 5000;
+
+    private final RentRepository rentRepository;
+    private final ParkingSpotRepository parkingSpotRepository;
+    private final SpotAvailabilityIndex availabilityIndex;
+    private final ReservationIndex reservationIndex;
+    private final RentExpiryEngine expiryEngine;
+    private final WebSocketService webSocketService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${parking.reservation.sweep-chunk-size:1000}")
+    private int sweepChunkSize;
+
+    private final TimingWheel wheel = new TimingWheel(TICK_MILLIS, System.currentTimeMillis());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadReservations() {
+        List<Rent> reservations = rentRepository.findByReservedTrue();
+        for (Rent rent : reservations) {
+            wheel.schedule(rent.getId(), millis(rent.getStartTime()));
+        }
+        log.info("Reservation activator loaded {} reservations", reservations.size());
+    }
+
+    // Registers a new reservation once its transaction commits.
+    public void schedule(Rent rent) {
+        Long rentId = rent.getId();
+        long startMillis = millis(rent.getStartTime());
+        TransactionCallbacks.afterCommit(() -> wheel.schedule(rentId, startMillis));
+    }
+
+    // Removes a cancelled reservation once its transaction commits.
+    public void cancel(Long rentId) {
+        TransactionCallbacks.afterCommit(() -> wheel.cancel(rentId));
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void tick() {
+        List<Long> dueRentIds = wheel.advance(System.currentTimeMillis());
+        if (!dueRentIds.isEmpty()) {
+            activate(dueRentIds);
+        }
+    }
+
+    // Safety sweep, every minute by default (parking.reservation.sweep-ms).
+    @Scheduled(fixedRateString = "${parking.reservation.sweep-ms:60000}")
+    public void sweep() {
+        List<Long> dueRentIds = rentRepository.findDueReservationIds(LocalDateTime.now(), PageRequest.of(0, sweepChunkSize));
+        if (!dueRentIds.isEmpty()) {
+            activate(dueRentIds);
+        }
+    }
+
+    // Activates each reservation in its own short transaction, so one failure does not hold back the others.
+    private void activate(List<Long> rentIds) {
+        List<Long> takenSpotIds = new ArrayList<>();
+        for (Long rentId : rentIds) {
+            try {
+                Long spotId = transactionTemplate.execute(status -> activateOne(rentId));
+                if (spotId != null) {
+                    availabilityIndex.markTaken(spotId);
+                    takenSpotIds.add(spotId);
+                }
+            } catch (Exception e) {
+                // The sweep retries it later.
+                log.error("Failed to activate reservation {}", rentId, e);
+            }
+        }
+
+        if (takenSpotIds.isEmpty()) {
+            return;
+        }
+        log.info("Activated {} reservations", takenSpotIds.size());
+        try {
+            webSocketService.notifySpotsChanged(takenSpotIds, false);
+        } catch (Exception e) {
+            log.error("WebSocket notification failed", e);
+        }
+    }
+
+    // Returns the claimed spot id, or null if the reservation was not activated.
+    private Long activateOne(Long rentId) {
+        Rent rent = rentRepository.findByIdAndReservedTrue(rentId).orElse(null);
+        if (rent == null) {
+            // Cancelled or already activated.
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Long spotId = rent.getParkingSpot().getId();
+        if (!rent.getEndTime().isAfter(now)) {
+            log.warn("Reservation {} lapsed without being activated", rentId);
+            rent.setReserved(false);
+            reservationIndex.removeAfterCommit(spotId, rentId);
+            return null;
+        }
+        if (parkingSpotRepository.claimIfAvailable(spotId) == 0) {
+            // Still held by a rent that is about to expire.
+            long retryAt = System.currentTimeMillis() + RETRY_MILLIS;
+            TransactionCallbacks.afterCommit(() -> wheel.schedule(rentId, retryAt));
+            return null;
+        }
+
+        rent.setReserved(false);
+        rent.setActive(true);
+        expiryEngine.schedule(rent);
+        return spotId;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
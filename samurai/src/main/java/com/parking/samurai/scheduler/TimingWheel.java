@@ -0,0 +1,121 @@
+package com.parking.samurai.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+* Hierarchical timing wheel keyed by entity id.
+* Four levels of 64 slots each cover 64^4 ticks (about 194 days at one-second ticks);
+* entries further away are parked on the top level and re-placed whenever it cascades.
+* Scheduling, cancelling and firing are O(1) amortized, and advancing the clock
+* never scans entries that are not due yet.
+* Not a Spring bean: the owning component drives it with the current time.
+*/
+
+final class TimingWheel {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final ArrayDeque<Entry>[][] slots;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.slots = new ArrayDeque[LEVELS][WHEEL_SIZE];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                slots[level][slot] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    // Schedules (or reschedules) the id to fire at the given time.
+    // Deadlines in the past fire on the next tick.
+    synchronized void schedule(long id, long dueMillis) {
+        cancel(id);
+        long deadline = Math.max(Math.ceilDiv(dueMillis, tickMillis), currentTick + 1);
+        Entry entry = new Entry(id, deadline);
+        entries.put(id, entry);
+        place(entry, null);
+    }
+
+    synchronized void cancel(long id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    // Moves the wheel forward to the given time and returns the ids that became due.
+    synchronized List<Long> advance(long nowMillis) {
+        List<Long> due = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Cascade higher levels whose lower digits just wrapped to zero.
+            for (int level = 1; level < LEVELS; level++) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                drain(slots[level][(int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK)], due);
+            }
+
+            drain(slots[0][(int) (currentTick & WHEEL_MASK)], due);
+        }
+        return due;
+    }
+
+    private void drain(ArrayDeque<Entry> slot, List<Long> due) {
+        int count = slot.size();
+        for (int i = 0; i < count; i++) {
+            Entry entry = slot.poll();
+            if (!entry.cancelled) {
+                place(entry, due);
+            }
+        }
+    }
+
+    // Puts the entry on the lowest level whose span covers its remaining delay,
+    // or reports it as due if its deadline has been reached.
+    private void place(Entry entry, List<Long> due) {
+        long delta = entry.deadline - currentTick;
+        if (delta <= 0 && due != null) {
+            entries.remove(entry.id);
+            due.add(entry.id);
+            return;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        slots[level][(int) ((entry.deadline >>> (WHEEL_BITS * level)) & WHEEL_MASK)].add(entry);
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long deadline;
+        private boolean cancelled;
+
+        private Entry(long id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.parking.samurai.security;
+
+import com.parking.samurai.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+* Lightweight authenticated principal built from JWT claims.
+* Carries only what request handling needs (user id, username, authorities),
+* so authenticating a request does not require loading the User entity from the database.
+*/
+
+public record AuthenticatedUser(
+        Long id,
+        String username,
+        Collection<? extends GrantedAuthority> authorities
+) implements Principal {
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), List.copyOf(user.getAuthorities()));
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,57 @@
+package com.parking.samurai.security;
+
+import com.parking.samurai.entity.User;
+import com.parking.samurai.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+* Resolves the currently authenticated user from the SecurityContext.
+* The id comes straight from the stateless principal; when an entity is needed
+* for an association (e.g. Rent.user), a lazy reference is returned instead of
+* loading the row.
+*/
+
+@Component
+@RequiredArgsConstructor
+public class CurrentUserProvider {
+
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+
+    public Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new IllegalStateException("User not authenticated");
+        }
+
+        Object principal = authentication.getPrincipal();
+
+        if (principal instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+
+        if (principal instanceof User user) {
+            return user.getId();
+        }
+
+        if (principal instanceof UserDetails userDetails) {
+            return userCache.getByUsername(userDetails.getUsername()).getId();
+        }
+
+        if (principal instanceof String username) {
+            return userCache.getByUsername(username).getId();
+        }
+
+        throw new IllegalStateException("Unexpected principal type: " + principal.getClass());
+    }
+
+    // Proxy for the current user; no SELECT is issued unless a non-id property is read.
+    public User currentUserReference() {
+        return userRepository.getReferenceById(currentUserId());
+    }
+}
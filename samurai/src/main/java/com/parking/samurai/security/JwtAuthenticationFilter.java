@@ -1,5 +1,6 @@
 package com.parking.samurai.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,8 +9,6 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,7 +18,8 @@ import java.io.IOException;
 /**
 * Security filter responsible for JWT-based authentication.
 * Intercepts every HTTP request, extracts and validates JWT from the Authorization header.
-* If the token is valid, sets the authenticated user in the Spring Security context.
+* If the token is valid and not revoked, sets a stateless AuthenticatedUser built from
+* the token claims in the Spring Security context, without querying the database.
 * Extends OncePerRequestFilter to guarantee single execution per request.
 */
 
@@ -28,7 +28,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserCache userCache;
 
     @Override
     protected void doFilterInternal(
@@ -52,20 +53,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String jwt = authHeader.substring(7);
         try {
-            final String username = jwtService.extractUsername(jwt);
+            // One parse and signature check per token; repeated requests hit JwtService's cache.
+            final Claims claims = jwtService.parseValidClaims(jwt);
+            final String username = claims.getSubject();
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            if (username != null
+                    && !tokenRevocationService.isRevoked(claims)
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                AuthenticatedUser user = jwtService.toAuthenticatedUser(claims);
+                if (user == null) {
+                    // Token issued before user ids were embedded: fall back to the cached entity.
+                    user = AuthenticatedUser.of(userCache.getByUsername(username));
                 }
+
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        user,
+                        null,
+                        user.authorities()
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e);
@@ -73,4 +81,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
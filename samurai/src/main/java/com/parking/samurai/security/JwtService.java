@@ -1,75 +1,228 @@
 package com.parking.samurai.security;
 
+import com.parking.samurai.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
 * Service responsible for JWT creation, validation, and claim extraction.
 * Encapsulates all JWT-related logic to keep security concerns isolated.
 * Uses a configurable secret key and expiration time loaded from application properties.
+* The signing key and parser are built once at startup. Verified tokens are kept in a
+* bounded LRU cache keyed by the token's SHA-256 hash until they expire, so a token that is
+* sent on every request is parsed and HMAC-verified only once. When the cache is full only the
+* least recently used token is dropped, so active tokens stay cached. Large caches are split
+* into a few independently locked segments, so concurrent requests rarely contend.
+* Validation time is recorded as parking.jwt.validation, tagged by cache hit, miss or invalid token.
 */
 
 @Service
 public class JwtService {
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String AUTHORITIES_CLAIM = "authorities";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private long expiration;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private SecretKey signKey;
+    private JwtParser parser;
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 1024;
+
+    private TokenSegment[] segments;
+
+    private final Timer cacheHitTimer;
+    private final Timer cacheMissTimer;
+    private final Timer invalidTokenTimer;
+
+    public JwtService(MeterRegistry meterRegistry) {
+        this.cacheHitTimer = validationTimer(meterRegistry, "hit");
+        this.cacheMissTimer = validationTimer(meterRegistry, "miss");
+        this.invalidTokenTimer = validationTimer(meterRegistry, "invalid");
+    }
+
+    @PostConstruct
+    void init() {
+        this.signKey = buildSignKey();
+        this.parser = Jwts.parser()
+                .verifyWith(signKey)
+                .build();
+
+        // A power of two of segments, each at least MIN_SEGMENT_SIZE large unless the whole cache is smaller.
+        int segmentCount = Integer.highestOneBit(Math.clamp(cacheMaxSize / MIN_SEGMENT_SIZE, 1, MAX_SEGMENTS));
+        int segmentSize = Math.max(1, (cacheMaxSize + segmentCount - 1) / segmentCount);
+        this.segments = new TokenSegment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new TokenSegment(segmentSize);
+        }
+    }
+
+    // Tokens carry the user id and authorities, so requests can be authenticated from claims alone,
+    // and a unique id (jti) so individual tokens can be revoked.
     public String generateToken(UserDetails userDetails) {
-        return Jwts.builder()
+        var builder = Jwts.builder();
+        if (userDetails instanceof User user && user.getId() != null) {
+            builder.claim(USER_ID_CLAIM, user.getId());
+        }
+        return builder
+                .id(UUID.randomUUID().toString())
                 .subject(userDetails.getUsername())
+                .claim(AUTHORITIES_CLAIM, userDetails.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .toList())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignKey())
+                .signWith(signKey)
                 .compact();
     }
 
+    // Single-parse validation path: returns the claims of a correctly signed, unexpired token.
+    // Throws JwtException if the token is malformed, tampered with, or expired.
+    public Claims parseValidClaims(String token) {
+        long started = System.nanoTime();
+        String key = cacheKey(token);
+        long now = System.currentTimeMillis();
+
+        TokenSegment segment = segment(key);
+        VerifiedToken cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+            if (cached != null && cached.expiresAt() <= now) {
+                segment.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            cacheHitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return cached.claims();
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException e) {
+            invalidTokenTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        remember(key, claims);
+        cacheMissTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return claims;
+    }
+
+    // Builds the stateless principal from token claims.
+    // Returns null for tokens issued before the user id was embedded.
+    public AuthenticatedUser toAuthenticatedUser(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        if (userId == null) {
+            return null;
+        }
+        List<?> authorities = claims.get(AUTHORITIES_CLAIM, List.class);
+        List<GrantedAuthority> grantedAuthorities = authorities == null
+                ? List.of()
+                : authorities.stream()
+                        .map(authority -> (GrantedAuthority) new SimpleGrantedAuthority(authority.toString()))
+                        .toList();
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(), grantedAuthorities);
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseValidClaims(token).getSubject();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        try {
+            return userDetails.getUsername().equals(parseValidClaims(token).getSubject());
+        } catch (JwtException e) {
+            return false;
+        }
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private void remember(String key, Claims claims) {
+        Date expiresAt = claims.getExpiration();
+        if (expiresAt == null) {
+            return;
+        }
+        TokenSegment segment = segment(key);
+        synchronized (segment) {
+            segment.put(key, new VerifiedToken(claims, expiresAt.getTime()));
+        }
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private TokenSegment segment(String key) {
+        return segments[key.hashCode() & (segments.length - 1)];
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        final Claims claims = extractAllClaims(token);
-        return resolver.apply(claims);
+    // Tokens are cached by hash so the cache never holds bearer credentials in plain form.
+    private static String cacheKey(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
-    // Parses the token and retrieves all claims using the signing key.
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private static Timer validationTimer(MeterRegistry meterRegistry, String cache) {
+        return Timer.builder("parking.jwt.validation")
+                .description("Time to validate a JWT")
+                .tag("cache", cache)
+                .register(meterRegistry);
     }
 
     // Builds the signing key from a Base64-encoded secret.
-    private SecretKey getSignKey() {
+    private SecretKey buildSignKey() {
         byte[] keyBytes = Decoders.BASE64.decode(secret);
         return Keys.hmacShaKeyFor(keyBytes);
     }
-}
\ No newline at end of file
+
+    private record VerifiedToken(Claims claims, long expiresAt) {}
+
+    // Access-ordered map that drops its least recently used token once it exceeds its capacity.
+    // Not thread-safe: even reads reorder entries, so every access holds the segment's lock.
+    private static final class TokenSegment extends LinkedHashMap<String, VerifiedToken> {
+
+        private final int capacity;
+
+        TokenSegment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.parking.samurai.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+* Keeps track of revoked JWTs by their id (jti) until they would have expired anyway.
+* Since requests are authenticated from token claims alone, this is what makes
+* logout effective before a token's natural expiry.
+*
+* <p>Single-node only: the deny list lives in this JVM. A token revoked on one node stays valid
+* on every other node until it expires, and all revocations are lost on restart. Running several
+* instances requires sticky sessions, or a shared store (e.g. a database table or Redis keyed by jti)
+* behind this class.</p>
+*/
+
+@Service
+public class TokenRevocationService {
+
+    private final Map<String, Long> revokedUntil = new ConcurrentHashMap<>();
+
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            return;
+        }
+        Date expiration = claims.getExpiration();
+        long until = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+        revokedUntil.put(claims.getId(), until);
+    }
+
+    public boolean isRevoked(Claims claims) {
+        return claims.getId() != null && revokedUntil.containsKey(claims.getId());
+    }
+
+    // Expired tokens are rejected by signature validation anyway, so their entries can go.
+    @Scheduled(fixedRate = 60000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedUntil.values().removeIf(until -> until <= now);
+    }
+}
@@ -0,0 +1,103 @@
+package com.parking.samurai.security;
+
+import com.parking.samurai.entity.User;
+import com.parking.samurai.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+* Small time-to-live cache of User entities by username.
+* Covers the remaining flows that need the entity itself (e.g. tokens issued before
+* user ids were embedded in the JWT) without a query on every request.
+* Bounded like the token cache in JwtService: when full only the least recently used user is
+* dropped, and large caches are split into independently locked segments.
+* Cached entities are detached and must be treated as read-only.
+*/
+
+@Component
+@RequiredArgsConstructor
+public class UserCache {
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 1024;
+
+    private final UserRepository userRepository;
+
+    @Value("${parking.security.user-cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Value("${parking.security.user-cache.max-size:10000}")
+    private int maxSize;
+
+    private UserSegment[] segments;
+
+    @PostConstruct
+    void init() {
+        // A power of two of segments, each at least MIN_SEGMENT_SIZE large unless the whole cache is smaller.
+        int segmentCount = Integer.highestOneBit(Math.clamp(maxSize / MIN_SEGMENT_SIZE, 1, MAX_SEGMENTS));
+        int segmentSize = Math.max(1, (maxSize + segmentCount - 1) / segmentCount);
+        this.segments = new UserSegment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new UserSegment(segmentSize);
+        }
+    }
+
+    public User getByUsername(String username) {
+        long now = System.currentTimeMillis();
+        UserSegment segment = segment(username);
+        synchronized (segment) {
+            CachedUser cached = segment.get(username);
+            if (cached != null) {
+                if (cached.expiresAt() > now) {
+                    return cached.user();
+                }
+                segment.remove(username);
+            }
+        }
+
+        // Loaded outside the lock, so a slow query does not block the segment's other users.
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+
+        synchronized (segment) {
+            segment.put(username, new CachedUser(user, now + ttlMillis));
+        }
+        return user;
+    }
+
+    public void evict(String username) {
+        UserSegment segment = segment(username);
+        synchronized (segment) {
+            segment.remove(username);
+        }
+    }
+
+    private UserSegment segment(String username) {
+        return segments[username.hashCode() & (segments.length - 1)];
+    }
+
+    private record CachedUser(User user, long expiresAt) {}
+
+    // Access-ordered map that drops its least recently used user once it exceeds its capacity.
+    // Not thread-safe: even reads reorder entries, so every access holds the segment's lock.
+    private static final class UserSegment extends LinkedHashMap<String, CachedUser> {
+
+        private final int capacity;
+
+        UserSegment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+            return size() > capacity;
+        }
+    }
+}
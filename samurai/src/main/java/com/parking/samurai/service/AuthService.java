@@ -13,4 +13,5 @@ import com.parking.samurai.dto.RegisterRequest;
 public interface AuthService {
     AuthResponse register(RegisterRequest request);
     AuthResponse authenticate(AuthRequest request);
+    void logout(String token);
 }
\ No newline at end of file
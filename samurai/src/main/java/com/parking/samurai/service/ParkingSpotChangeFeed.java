@@ -0,0 +1,47 @@
+package com.parking.samurai.service;
+
+import com.parking.samurai.dto.ParkingSpotChange;
+import com.parking.samurai.event.ParkingSpotChangesEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+
+/**
+* Reactive view of the parking spot change feed.
+* Re-publishes the batches flushed by WebSocketService to any number of reactive subscribers,
+* so non-STOMP clients (Server-Sent Events) see exactly the same deltas and versions.
+* The sink is best-effort: a subscriber that cannot keep up misses batches instead of
+* slowing everyone down, and detects the resulting version gap on its side.
+* The number of subscribers is exposed as the parking.sse.subscribers gauge.
+*/
+
+@Service
+public class ParkingSpotChangeFeed {
+
+    private final Sinks.Many<List<ParkingSpotChange>> sink = Sinks.many().multicast().directBestEffort();
+
+    public ParkingSpotChangeFeed(MeterRegistry meterRegistry) {
+        Gauge.builder("parking.sse.subscribers", this, ParkingSpotChangeFeed::subscriberCount)
+                .description("Active Server-Sent Events subscribers to the spot change feed")
+                .register(meterRegistry);
+    }
+
+    public Flux<List<ParkingSpotChange>> changes() {
+        return sink.asFlux();
+    }
+
+    public int subscriberCount() {
+        return sink.currentSubscriberCount();
+    }
+
+    // Events arrive from WebSocketService's single publisher, so emissions are already serialized.
+    @EventListener
+    public void onChanges(ParkingSpotChangesEvent event) {
+        sink.tryEmitNext(event.changes());
+    }
+}
@@ -0,0 +1,24 @@
+package com.parking.samurai.service;
+
+import com.parking.samurai.dto.ParkingSpotImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+* Bulk import of parking spots.
+* Implementations must read the input incrementally, never holding the whole file in memory,
+* and reject invalid rows individually instead of failing the whole import.
+*/
+
+public interface ParkingSpotImportService {
+
+    ParkingSpotImportResult importSpots(InputStream in, Format format) throws IOException;
+
+    // Supported input formats.
+    // CSV needs a header row with "location" and "pricePerHour" columns, "available" is optional.
+    // NDJSON is one JSON object per line with the same fields.
+    enum Format {
+        CSV, NDJSON
+    }
+}
@@ -1,7 +1,12 @@
 package com.parking.samurai.service;
 
+import com.parking.samurai.cache.ParkingSpotSnapshot;
+import com.parking.samurai.dto.ParkingSpotFilter;
+import com.parking.samurai.dto.ParkingSpotPage;
+import com.parking.samurai.dto.ParkingSpotView;
 import com.parking.samurai.entity.ParkingSpot;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -13,9 +18,14 @@ public interface ParkingSpotService {
 
     ParkingSpot createParkingSpot(ParkingSpot spot);
 
-    List<ParkingSpot> getAllParkingSpots();
+    ParkingSpot getParkingSpotById(Long id);
 
-    List<ParkingSpot> getAvailableParkingSpots();
+    // Cached, pre-serialized listing of all spots; see ParkingSpotSnapshotCache.
+    ParkingSpotSnapshot getSnapshot();
 
-    ParkingSpot getParkingSpotById(Long id);
+    // Keyset-paginated, filtered listing: spots with id greater than the cursor, in id order.
+    ParkingSpotPage getParkingSpotPage(ParkingSpotFilter filter, Long after, int limit);
+
+    // Spots with no rent or reservation overlapping [from, to), in id order; answered from memory.
+    List<ParkingSpotView> findFreeSpots(LocalDateTime from, LocalDateTime to, String locationPrefix, int limit);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.parking.samurai.service;
+
+import com.parking.samurai.dto.QuoteRequest;
+import com.parking.samurai.dto.QuoteResponse;
+
+/**
+* Prices many parking spots for one period in a single call, without creating a rent.
+*/
+
+public interface QuoteService {
+
+    QuoteResponse quote(QuoteRequest request);
+}
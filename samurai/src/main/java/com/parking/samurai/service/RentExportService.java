@@ -0,0 +1,20 @@
+package com.parking.samurai.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+* Exports rent history for reporting.
+* Implementations must stream rows with constant memory, regardless of how many rents match.
+*/
+
+public interface RentExportService {
+
+    // Writes the user's rents started within [from, to) as newline-delimited JSON.
+    // Returns the number of rows written.
+    long exportNdjson(Long userId, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException;
+
+    // Writes every user's rents started within [from, to) the same way. Callers must restrict it to admins.
+    long exportAllNdjson(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException;
+}
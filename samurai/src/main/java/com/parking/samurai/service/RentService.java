@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 * Handles parking spot rental lifecycle:
 * - instant rent ("rent now")
 * - fixed-period rent
-* - rent cancellation
+* - advance reservation of a future period
+* - rent and reservation cancellation
 */
 
  public interface RentService {
@@ -17,6 +18,12 @@ import java.time.LocalDateTime;
 
     Rent rentSpotForPeriod(Long spotId, LocalDateTime endTime);
 
-    void cancelRent(Long rentId);
+    Rent cancelRent(Long rentId);
     Rent bookSpot(Long spotId);
+
+    // Reserves the spot for a future period [startTime, endTime); it becomes an active rent at startTime.
+    Rent reserveSpot(Long spotId, LocalDateTime startTime, LocalDateTime endTime);
+
+    // Cancels a reservation that has not started yet.
+    Rent cancelReservation(Long rentId);
 }
\ No newline at end of file
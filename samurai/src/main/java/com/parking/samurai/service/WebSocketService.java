@@ -1,25 +1,223 @@
 package com.parking.samurai.service;
 
+import com.parking.samurai.dto.ParkingSpotChange;
+import com.parking.samurai.event.ParkingSpotChangesEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
 * Service responsible for sending real-time updates to clients via WebSocket.
 * Encapsulates messaging logic, allowing controllers or schedulers to notify
 * clients when parking spots are created, updated, or freed.
+* Each message is a list of ParkingSpotChange deltas carrying the spot id, its new
+* availability and a monotonically increasing version, so clients patch their state
+* and only resync when they detect a version gap.
+*
+* <p>Changes are not sent on the caller's thread. They are collected in a bounded
+* pending map where repeated changes to the same spot are merged (latest state wins),
+* and flushed as one batched frame every flush interval or as soon as a full batch
+* is pending. Burst expiries therefore produce a handful of messages, not thousands.
+* When the map is full, changes to spots already pending are still merged, but changes to
+* other spots are dropped; the next flush skips one version, so every consumer sees a gap
+* and resyncs. Callers never wait for the broker.
+* Every frame is also published as a ParkingSpotChangesEvent for in-process consumers.</p>
+* Publish latency and frame size, the pending backlog and the number of connected
+* STOMP sessions are exposed as parking.websocket.* metrics.
 * Uses Spring's SimpMessagingTemplate for broadcasting messages to subscribed clients.
 */
 
 @Service
+@Slf4j
 public class WebSocketService {
 
+    public static final String PARKING_SPOTS_TOPIC = "/topic/parking-spots";
+
     private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxBatchSize;
+    private final int maxPending;
+    private final AtomicLong version = new AtomicLong();
+    private final Timer publishTimer;
+    private final DistributionSummary batchSizes;
+
+    // Ids rather than a counter: a disconnect can be reported more than once per session.
+    private final Set<String> connectedSessions = ConcurrentHashMap.newKeySet();
 
-    public WebSocketService(SimpMessagingTemplate messagingTemplate) {
+    // Latest pending availability per spot, in first-change order. Guarded by itself.
+    private final Map<Long, Boolean> pending = new LinkedHashMap<>();
+    // Changes dropped because the map was full since the last flush. Guarded by pending.
+    private int dropped;
+    // Size of pending, readable without its lock (metrics).
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // Set while an early flush is queued on the publisher, so a burst queues only one.
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final Counter droppedChanges;
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "spot-change-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WebSocketService(
+            SimpMessagingTemplate messagingTemplate,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${parking.websocket.flush-interval-ms:100}") long flushIntervalMs,
+            @Value("${parking.websocket.max-batch-size:500}") int maxBatchSize,
+            @Value("${parking.websocket.max-pending:10000}") int maxPending
+    ) {
         this.messagingTemplate = messagingTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPending = maxPending;
+        this.publishTimer = Timer.builder("parking.websocket.publish")
+                .description("Time to hand one change frame to the broker")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("parking.websocket.batch.size")
+                .description("Changes per published frame")
+                .register(meterRegistry);
+        this.droppedChanges = Counter.builder("parking.websocket.dropped")
+                .description("Changes dropped because the pending map was full")
+                .register(meterRegistry);
+        Gauge.builder("parking.websocket.pending", pendingCount, AtomicInteger::get)
+                .description("Changes waiting to be flushed")
+                .register(meterRegistry);
+        Gauge.builder("parking.websocket.sessions", connectedSessions, Set::size)
+                .description("Connected STOMP sessions")
+                .register(meterRegistry);
+        publisher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Version of the latest published change.
+    // Exposed on list endpoints so clients know where their snapshot stands.
+    public long currentVersion() {
+        return version.get();
+    }
+
+    public void notifySpotChanged(Long spotId, boolean available) {
+        notifySpotsChanged(List.of(spotId), available);
+    }
+
+    // Queues the same availability change for several spots.
+    public void notifySpotsChanged(Collection<Long> spotIds, boolean available) {
+        if (spotIds.isEmpty()) {
+            return;
+        }
+
+        int size;
+        int droppedNow = 0;
+        synchronized (pending) {
+            for (Long spotId : spotIds) {
+                // Remove first so a re-changed spot moves to the end and keeps version order meaningful.
+                if (pending.remove(spotId) == null && pending.size() >= maxPending) {
+                    droppedNow++;
+                    continue;
+                }
+                pending.put(spotId, available);
+            }
+            dropped += droppedNow;
+            size = pending.size();
+            pendingCount.set(size);
+        }
+        if (droppedNow > 0) {
+            droppedChanges.increment(droppedNow);
+        }
+
+        // A full batch is flushed early, by the publisher; the caller never sends.
+        if (size >= maxBatchSize && flushQueued.compareAndSet(false, true)) {
+            publisher.execute(this::flushSafely);
+        }
+    }
+
+    // Sends everything pending, at most maxBatchSize changes per frame.
+    public void flush() {
+        // Draining and sending under one lock keeps frames in version order,
+        // so a later state of a spot can never be overtaken by an earlier one.
+        synchronized (version) {
+            flushQueued.set(false);
+            List<Map.Entry<Long, Boolean>> drained;
+            boolean lostChanges;
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                drained = new ArrayList<>(pending.entrySet());
+                pending.clear();
+                pendingCount.set(0);
+                lostChanges = dropped > 0;
+                dropped = 0;
+            }
+            if (lostChanges) {
+                // A skipped version: consumers see a gap and resync.
+                version.incrementAndGet();
+            }
+
+            for (int from = 0; from < drained.size(); from += maxBatchSize) {
+                List<Map.Entry<Long, Boolean>> batch = drained.subList(from, Math.min(from + maxBatchSize, drained.size()));
+                List<ParkingSpotChange> changes = new ArrayList<>(batch.size());
+                for (Map.Entry<Long, Boolean> change : batch) {
+                    changes.add(new ParkingSpotChange(version.incrementAndGet(), change.getKey(), change.getValue()));
+                }
+                // In-process consumers first, so they stay in sync even if the broker send fails.
+                eventPublisher.publishEvent(new ParkingSpotChangesEvent(changes));
+                publishTimer.record(() -> messagingTemplate.convertAndSend(PARKING_SPOTS_TOPIC, changes));
+                batchSizes.record(changes.size());
+            }
+        }
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (sessionId != null) {
+            connectedSessions.add(sessionId);
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        connectedSessions.remove(event.getSessionId());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdown();
+        flushSafely();
     }
 
-    public void notifyParkingSpotsChanged() {
-        messagingTemplate.convertAndSend("/topic/parking-spots", "updated");
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // Clients detect the resulting version gap and resync.
+            log.error("WebSocket notification failed", e);
+        }
     }
-}
\ No newline at end of file
+}
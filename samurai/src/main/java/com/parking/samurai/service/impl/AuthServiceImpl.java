@@ -6,6 +6,7 @@ import com.parking.samurai.dto.AuthResponse;
 import com.parking.samurai.dto.RegisterRequest;
 import com.parking.samurai.repository.UserRepository;
 import com.parking.samurai.security.JwtService;
+import com.parking.samurai.security.TokenRevocationService;
 import com.parking.samurai.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,6 +28,7 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     public AuthResponse register(RegisterRequest request) {
@@ -58,4 +60,11 @@ public class AuthServiceImpl implements AuthService {
         String jwt = jwtService.generateToken(user);
         return new AuthResponse(jwt);
     }
+
+    @Override
+    public void logout(String token) {
+        // Requests are authenticated from token claims alone, so the token id is put on the
+        // deny list until the token would have expired anyway.
+        tokenRevocationService.revoke(jwtService.parseValidClaims(token));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+package com.parking.samurai.service.impl;
+
+import com.parking.samurai.cache.ParkingSpotSnapshotCache;
+import com.parking.samurai.cache.SpotAvailabilityIndex;
+import com.parking.samurai.dto.ParkingSpotImportError;
+import com.parking.samurai.dto.ParkingSpotImportResult;
+import com.parking.samurai.dto.ParkingSpotImportRow;
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.repository.ParkingSpotRepository;
+import com.parking.samurai.service.ParkingSpotImportService;
+import com.parking.samurai.service.WebSocketService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+* Implementation of ParkingSpotImportService.
+* Reads the upload line by line and validates each row as it arrives (required location,
+* positive price, location unique within the file and against existing spots).
+* Valid rows are written in batches, each batch in its own short transaction using JDBC
+* batching. Location uniqueness is enforced by a unique index: if a batch fails (typically a
+* location inserted concurrently by another import), its rows are retried one by one, so only
+* the rows that actually fail are rejected. The availability index, the snapshot cache and
+* WebSocket clients are updated once, after the whole file has been processed.
+*/
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ParkingSpotImportServiceImpl implements ParkingSpotImportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LOCATION_LENGTH = 255;
+
+    private final ParkingSpotRepository parkingSpotRepository;
+    private final SpotAvailabilityIndex availabilityIndex;
+    private final ParkingSpotSnapshotCache snapshotCache;
+    private final WebSocketService webSocketService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${parking.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${parking.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Override
+    public ParkingSpotImportResult importSpots(InputStream in, Format format) throws IOException {
+        ImportRun run = new ImportRun();
+        ObjectReader jsonReader = objectMapper.readerFor(ParkingSpotImportRow.class);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        CsvColumns columns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+
+            if (format == Format.CSV && columns == null) {
+                columns = CsvColumns.fromHeader(line);
+                if (columns == null) {
+                    run.reject(lineNumber, null, "Header must contain location and pricePerHour columns");
+                    break;
+                }
+                continue;
+            }
+
+            ParkingSpotImportRow row;
+            try {
+                row = format == Format.CSV ? columns.parse(line) : jsonReader.readValue(line);
+            } catch (JacksonException e) {
+                run.reject(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                run.reject(lineNumber, null, "Malformed row: " + e.getMessage());
+                continue;
+            }
+            if (row == null) {
+                run.reject(lineNumber, null, "Row is empty");
+                continue;
+            }
+
+            String location = row.location() == null ? null : row.location().trim();
+            String problem = validate(location, row.pricePerHour());
+            if (problem != null) {
+                run.reject(lineNumber, location, problem);
+                continue;
+            }
+            if (!run.seenLocations.add(location)) {
+                run.reject(lineNumber, location, "Duplicate location in file");
+                continue;
+            }
+
+            boolean available = row.available() == null || row.available();
+            run.pending.add(new PendingRow(lineNumber, location, row.pricePerHour(), available));
+            if (run.pending.size() >= batchSize) {
+                saveBatch(run);
+            }
+        }
+        saveBatch(run);
+
+        publish(run);
+        log.info("Imported {} parking spots, rejected {} rows", run.imported, run.rejected);
+        return new ParkingSpotImportResult(run.imported, run.rejected, run.errors, run.rejected > run.errors.size());
+    }
+
+    private static String validate(String location, BigDecimal pricePerHour) {
+        if (location == null || location.isEmpty()) {
+            return "Location is required";
+        }
+        if (location.length() > MAX_LOCATION_LENGTH) {
+            return "Location is longer than " + MAX_LOCATION_LENGTH + " characters";
+        }
+        if (pricePerHour == null) {
+            return "Price per hour is required";
+        }
+        if (pricePerHour.signum() <= 0) {
+            return "Price per hour must be positive";
+        }
+        return null;
+    }
+
+    // Writes the pending rows in one transaction, or row by row if that transaction fails.
+    private void saveBatch(ImportRun run) {
+        if (run.pending.isEmpty()) {
+            return;
+        }
+        List<PendingRow> batch = List.copyOf(run.pending);
+        run.pending.clear();
+
+        try {
+            saveRows(run, batch);
+        } catch (RuntimeException e) {
+            log.warn("Import batch of {} rows failed, retrying row by row", batch.size(), e);
+            batch.forEach(row -> saveRow(run, row));
+        }
+    }
+
+    private void saveRow(ImportRun run, PendingRow row) {
+        try {
+            saveRows(run, List.of(row));
+        } catch (DataIntegrityViolationException e) {
+            // Rows are validated up front, so the unique location index is the constraint that failed.
+            run.reject(row.line(), row.location(), "Location already exists");
+        } catch (RuntimeException e) {
+            log.warn("Import row {} failed", row.line(), e);
+            run.reject(row.line(), row.location(), "Could not be saved");
+        }
+    }
+
+    // Inserts the rows in one transaction, skipping locations that already exist.
+    // The outcome is recorded only once the transaction has committed.
+    private void saveRows(ImportRun run, List<PendingRow> rows) {
+        List<PendingRow> existing = new ArrayList<>();
+        List<ParkingSpot> saved = transactionTemplate.execute(status -> {
+            existing.clear();
+            Set<String> existingLocations = new HashSet<>(parkingSpotRepository.findExistingLocations(
+                    rows.stream().map(PendingRow::location).toList()));
+
+            List<ParkingSpot> spots = new ArrayList<>(rows.size());
+            for (PendingRow row : rows) {
+                if (existingLocations.contains(row.location())) {
+                    existing.add(row);
+                } else {
+                    spots.add(ParkingSpot.builder()
+                            .location(row.location())
+                            .pricePerHour(row.pricePerHour())
+                            .available(row.available())
+                            .build());
+                }
+            }
+            // Flushed here, so a unique index violation surfaces as a DataIntegrityViolationException.
+            return parkingSpotRepository.saveAllAndFlush(spots);
+        });
+
+        existing.forEach(row -> run.reject(row.line(), row.location(), "Location already exists"));
+        for (ParkingSpot spot : saved) {
+            (spot.isAvailable() ? run.availableIds : run.takenIds).add(spot.getId());
+        }
+        run.imported += saved.size();
+    }
+
+    // One refresh for the whole import instead of one per spot.
+    private void publish(ImportRun run) {
+        if (run.imported == 0) {
+            return;
+        }
+        run.availableIds.forEach(availabilityIndex::markAvailable);
+        run.takenIds.forEach(availabilityIndex::markTaken);
+        snapshotCache.invalidate();
+
+        try {
+            webSocketService.notifySpotsChanged(run.availableIds, true);
+            webSocketService.notifySpotsChanged(run.takenIds, false);
+        } catch (Exception e) {
+            log.error("WebSocket notification failed", e);
+        }
+    }
+
+    private record PendingRow(long line, String location, BigDecimal pricePerHour, boolean available) {}
+
+    // Mutable state of one import call.
+    private final class ImportRun {
+
+        private final Set<String> seenLocations = new HashSet<>();
+        private final List<PendingRow> pending = new ArrayList<>();
+        private final List<ParkingSpotImportError> errors = new ArrayList<>();
+        private final List<Long> availableIds = new ArrayList<>();
+        private final List<Long> takenIds = new ArrayList<>();
+        private int imported;
+        private int rejected;
+
+        private void reject(long line, String location, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ParkingSpotImportError(line, location, message));
+            }
+        }
+    }
+
+    // Column positions taken from the CSV header row.
+    private record CsvColumns(int location, int pricePerHour, int available) {
+
+        // Returns null if a required column is missing.
+        static CsvColumns fromHeader(String header) {
+            List<String> names = splitCsv(header).stream()
+                    .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+            int location = names.indexOf("location");
+            int pricePerHour = names.indexOf("priceperhour");
+            if (location < 0 || pricePerHour < 0) {
+                return null;
+            }
+            return new CsvColumns(location, pricePerHour, names.indexOf("available"));
+        }
+
+        ParkingSpotImportRow parse(String line) {
+            List<String> fields = splitCsv(line);
+            String price = field(fields, pricePerHour);
+            String availability = available < 0 ? null : field(fields, available);
+            return new ParkingSpotImportRow(
+                    field(fields, location),
+                    price == null || price.isBlank() ? null : new BigDecimal(price.trim()),
+                    parseAvailable(availability)
+            );
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index < fields.size() ? fields.get(index) : null;
+        }
+
+        private static Boolean parseAvailable(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "true" -> true;
+                case "false" -> false;
+                default -> throw new IllegalArgumentException("available must be true or false");
+            };
+        }
+
+        // Splits one CSV line (RFC 4180 quoting, no embedded line breaks).
+        private static List<String> splitCsv(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -1,12 +1,23 @@
 package com.parking.samurai.service.impl;
 
+import com.parking.samurai.cache.ParkingSpotSnapshot;
+import com.parking.samurai.cache.ParkingSpotSnapshotCache;
+import com.parking.samurai.cache.ReservationIndex;
+import com.parking.samurai.cache.SpotAvailabilityIndex;
+import com.parking.samurai.dto.ParkingSpotFilter;
+import com.parking.samurai.dto.ParkingSpotPage;
+import com.parking.samurai.dto.ParkingSpotView;
 import com.parking.samurai.entity.ParkingSpot;
 import com.parking.samurai.repository.ParkingSpotRepository;
 import com.parking.samurai.service.ParkingSpotService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -20,28 +31,99 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ParkingSpotServiceImpl implements ParkingSpotService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final ParkingSpotRepository parkingSpotRepository;
+    private final SpotAvailabilityIndex availabilityIndex;
+    private final ParkingSpotSnapshotCache snapshotCache;
+    private final ReservationIndex reservationIndex;
 
     @Override
     @Transactional
     public ParkingSpot createParkingSpot(ParkingSpot spot) {
-        // Business validations can be added here if needed (e.g., check unique location)
-        return parkingSpotRepository.save(spot);
+        // Flushed here, so a duplicate location (unique index) surfaces as a business error.
+        ParkingSpot saved;
+        try {
+            saved = parkingSpotRepository.saveAndFlush(spot);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Location already exists");
+        }
+        if (saved.isAvailable()) {
+            availabilityIndex.releaseAfterCommit(saved.getId());
+        } else {
+            availabilityIndex.markTaken(saved.getId());
+        }
+        snapshotCache.invalidateAfterCommit();
+        return saved;
     }
 
     @Override
-    public List<ParkingSpot> getAllParkingSpots() {
-        return parkingSpotRepository.findAll();
+    public ParkingSpot getParkingSpotById(Long id) {
+        return parkingSpotRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Parking spot not found with id: " + id));
     }
 
     @Override
-    public List<ParkingSpot> getAvailableParkingSpots() {
-        return parkingSpotRepository.findByAvailable(true);
+    public ParkingSpotSnapshot getSnapshot() {
+        return snapshotCache.current();
     }
 
     @Override
-    public ParkingSpot getParkingSpotById(Long id) {
-        return parkingSpotRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Parking spot not found with id: " + id));
+    @Transactional(readOnly = true)
+    public ParkingSpotPage getParkingSpotPage(ParkingSpotFilter filter, Long after, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<ParkingSpotView> items = parkingSpotRepository.findPage(
+                after == null ? 0L : after,
+                toPrefixPattern(filter.locationPrefix()),
+                filter.minPrice(),
+                filter.maxPrice(),
+                filter.available(),
+                PageRequest.of(0, pageSize)
+        );
+
+        Long nextCursor = items.size() == pageSize ? items.getLast().id() : null;
+        return new ParkingSpotPage(items, nextCursor);
+    }
+
+    @Override
+    public List<ParkingSpotView> findFreeSpots(LocalDateTime from, LocalDateTime to, String locationPrefix, int limit) {
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("End of the window must be after its start");
+        }
+        int maxResults = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        String prefix = locationPrefix == null || locationPrefix.isBlank() ? null : locationPrefix;
+
+        // Both the snapshot and the blocked ids are sorted by id, so one merge pass skips blocked spots;
+        // the index only visits spots booked on the days the window touches.
+        long[] blocked = reservationIndex.blockedSpotIds(from, to);
+        List<ParkingSpotView> free = new ArrayList<>(Math.min(maxResults, 64));
+        int next = 0;
+        for (ParkingSpotView spot : snapshotCache.current().spots()) {
+            long id = spot.id();
+            while (next < blocked.length && blocked[next] < id) {
+                next++;
+            }
+            if (next < blocked.length && blocked[next] == id) {
+                continue;
+            }
+            if (prefix != null && (spot.location() == null || !spot.location().startsWith(prefix))) {
+                continue;
+            }
+            free.add(spot);
+            if (free.size() == maxResults) {
+                break;
+            }
+        }
+        return free;
+    }
+
+    // Turns a user-supplied prefix into a LIKE pattern, escaping wildcard characters.
+    private static String toPrefixPattern(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        return prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
     }
 }
\ No newline at end of file
@@ -0,0 +1,192 @@
+package com.parking.samurai.service.impl;
+
+import com.parking.samurai.cache.ParkingSpotSnapshot;
+import com.parking.samurai.cache.ParkingSpotSnapshotCache;
+import com.parking.samurai.cache.ReservationIndex;
+import com.parking.samurai.dto.ParkingSpotFilter;
+import com.parking.samurai.dto.ParkingSpotView;
+import com.parking.samurai.dto.QuoteRequest;
+import com.parking.samurai.dto.QuoteResponse;
+import com.parking.samurai.dto.SpotQuote;
+import com.parking.samurai.pricing.Money;
+import com.parking.samurai.pricing.PricingEngine;
+import com.parking.samurai.service.QuoteService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+* Implementation of QuoteService.
+* Works entirely on the cached ParkingSpotSnapshot: spots are selected and priced by index,
+* using the snapshot's precomputed minor-unit rates and the PricingEngine's long hot path,
+* so a quote needs no query and no BigDecimal until the response is built.
+* A spot is available for a quote only if it is free now and the ReservationIndex knows no
+* rent or reservation overlapping the quoted period.
+* Large selections are filtered and priced in parallel on the common fork-join pool.
+*/
+
+@Service
+@RequiredArgsConstructor
+public class QuoteServiceImpl implements QuoteService {
+
+    private static final long MAX_DURATION_DAYS = 366;
+
+    private final ParkingSpotSnapshotCache snapshotCache;
+    private final PricingEngine pricingEngine;
+    private final ReservationIndex reservationIndex;
+
+    @Value("${parking.quote.parallel-threshold:4096}")
+    private int parallelThreshold;
+
+    @Value("${parking.quote.max-spot-ids:10000}")
+    private int maxSpotIds;
+
+    @Override
+    public QuoteResponse quote(QuoteRequest request) {
+        LocalDateTime start = LocalDateTime.now();
+        LocalDateTime end = resolveEnd(request, start);
+        if (request.spotIds() != null && request.spotIds().size() > maxSpotIds) {
+            throw new IllegalArgumentException("At most " + maxSpotIds + " spot ids can be quoted at once");
+        }
+
+        ParkingSpotSnapshot snapshot = snapshotCache.current();
+        List<ParkingSpotView> spots = snapshot.spots();
+        long[] rates = snapshot.ratesMinor();
+        // Looked up once: only spots booked on the days the period touches are visited.
+        SpotMatcher matcher = SpotMatcher.of(request.filter(), reservationIndex.blockedSpotIds(start, end));
+
+        List<Long> unknownSpotIds = new ArrayList<>();
+        int[] candidates = request.spotIds() == null
+                ? stream(spots.size())
+                        .filter(i -> rates[i] >= 0 && matcher.matches(spots.get(i), rates[i]))
+                        .toArray()
+                : lookup(spots, rates, request.spotIds(), matcher, unknownSpotIds);
+
+        long[] prices = new long[candidates.length];
+        stream(candidates.length).forEach(i -> prices[i] = pricingEngine.priceMinor(
+                spots.get(candidates[i]).location(), rates[candidates[i]], start, end));
+
+        int limit = request.limit() == null ? candidates.length : Math.clamp(request.limit(), 0, candidates.length);
+        List<SpotQuote> quotes = new ArrayList<>(limit);
+        for (int position : cheapestFirst(prices, limit)) {
+            ParkingSpotView spot = spots.get(candidates[position]);
+            quotes.add(new SpotQuote(spot.id(), spot.location(), spot.pricePerHour(), matcher.isFree(spot),
+                    Money.fromMinor(prices[position])));
+        }
+        return new QuoteResponse(snapshot.version(), start, end, quotes, unknownSpotIds);
+    }
+
+    private static LocalDateTime resolveEnd(QuoteRequest request, LocalDateTime start) {
+        if ((request.endTime() == null) == (request.durationMinutes() == null)) {
+            throw new IllegalArgumentException("Exactly one of endTime and durationMinutes is required");
+        }
+        LocalDateTime end = request.endTime() != null
+                ? request.endTime()
+                : start.plusMinutes(request.durationMinutes());
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("End time must be in the future");
+        }
+        if (end.isAfter(start.plusDays(MAX_DURATION_DAYS))) {
+            throw new IllegalArgumentException("Quotes are limited to " + MAX_DURATION_DAYS + " days");
+        }
+        return end;
+    }
+
+    // Snapshot indexes of the requested spots, in id order and without duplicates.
+    private static int[] lookup(List<ParkingSpotView> spots, long[] rates, List<Long> spotIds,
+                                SpotMatcher matcher, List<Long> unknownSpotIds) {
+        long[] ids = spotIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        int[] indexes = new int[ids.length];
+        int count = 0;
+        for (long id : ids) {
+            int index = indexOf(spots, id);
+            if (index < 0) {
+                unknownSpotIds.add(id);
+            } else if (rates[index] >= 0 && matcher.matches(spots.get(index), rates[index])) {
+                indexes[count++] = index;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    // Binary search over the snapshot, which is sorted by id.
+    private static int indexOf(List<ParkingSpotView> spots, long id) {
+        int low = 0;
+        int high = spots.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = spots.get(mid).id();
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // Positions of the `limit` lowest prices. Price and position are packed into one long, so the
+    // sort is a primitive sort and ties keep id order (candidates are in id order).
+    private int[] cheapestFirst(long[] prices, int limit) {
+        int count = prices.length;
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = Math.addExact(Math.multiplyExact(prices[i], (long) count), i);
+        }
+        if (count >= parallelThreshold) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+        int[] positions = new int[limit];
+        for (int i = 0; i < limit; i++) {
+            positions[i] = (int) (keys[i] % count);
+        }
+        return positions;
+    }
+
+    private IntStream stream(int size) {
+        IntStream range = IntStream.range(0, size);
+        return size >= parallelThreshold ? range.parallel() : range;
+    }
+
+    // ParkingSpotFilter resolved once per request; prices are compared in minor units.
+    // blockedSpotIds (sorted) are the spots booked for part of the quoted period.
+    private record SpotMatcher(String locationPrefix, long minRate, long maxRate, Boolean available,
+                               long[] blockedSpotIds) {
+
+        static SpotMatcher of(ParkingSpotFilter filter, long[] blockedSpotIds) {
+            if (filter == null) {
+                return new SpotMatcher(null, Long.MIN_VALUE, Long.MAX_VALUE, null, blockedSpotIds);
+            }
+            String prefix = filter.locationPrefix() == null || filter.locationPrefix().isBlank()
+                    ? null : filter.locationPrefix();
+            return new SpotMatcher(
+                    prefix,
+                    filter.minPrice() == null ? Long.MIN_VALUE : Money.toMinor(filter.minPrice()),
+                    filter.maxPrice() == null ? Long.MAX_VALUE : Money.toMinor(filter.maxPrice()),
+                    filter.available(),
+                    blockedSpotIds
+            );
+        }
+
+        boolean matches(ParkingSpotView spot, long rate) {
+            return rate >= minRate && rate <= maxRate
+                    && (locationPrefix == null || (spot.location() != null && spot.location().startsWith(locationPrefix)))
+                    && (available == null || isFree(spot) == available);
+        }
+
+        // Free now and for the whole quoted period.
+        boolean isFree(ParkingSpotView spot) {
+            return spot.available() && Arrays.binarySearch(blockedSpotIds, spot.id()) < 0;
+        }
+    }
+}
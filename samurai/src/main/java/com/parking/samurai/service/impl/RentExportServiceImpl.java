@@ -0,0 +1,66 @@
+package com.parking.samurai.service.impl;
+
+import com.parking.samurai.dto.RentExportRow;
+import com.parking.samurai.repository.RentRepository;
+import com.parking.samurai.service.RentExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+* Implementation of RentExportService.
+* Reads rents through a forward-only database cursor of DTO rows and writes each row
+* as one JSON line as soon as it arrives, so memory stays constant and the
+* persistence context is never involved.
+*/
+
+@Service
+@RequiredArgsConstructor
+public class RentExportServiceImpl implements RentExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final RentRepository rentRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportNdjson(Long userId, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        try (Stream<RentExportRow> rows = rentRepository.streamForExport(userId, from, to)) {
+            return write(rows, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportAllNdjson(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        try (Stream<RentExportRow> rows = rentRepository.streamAllForExport(from, to)) {
+            return write(rows, out);
+        }
+    }
+
+    private long write(Stream<RentExportRow> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(RentExportRow.class);
+        OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        long count = 0;
+
+        Iterator<RentExportRow> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            buffered.write(writer.writeValueAsBytes(iterator.next()));
+            buffered.write('\n');
+            count++;
+        }
+
+        buffered.flush();
+        return count;
+    }
+}
@@ -1,28 +1,40 @@
 package com.parking.samurai.service.impl;
 
+import com.parking.samurai.cache.ReservationIndex;
+import com.parking.samurai.cache.SpotAvailabilityIndex;
 import com.parking.samurai.entity.ParkingSpot;
 import com.parking.samurai.entity.Rent;
 import com.parking.samurai.entity.User;
+import com.parking.samurai.pricing.PricingEngine;
 import com.parking.samurai.repository.ParkingSpotRepository;
 import com.parking.samurai.repository.RentRepository;
-import com.parking.samurai.repository.UserRepository;
+import com.parking.samurai.scheduler.RentExpiryEngine;
+import com.parking.samurai.scheduler.ReservationActivator;
+import com.parking.samurai.security.CurrentUserProvider;
 import com.parking.samurai.service.RentService;
+import com.parking.samurai.util.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.function.Supplier;
 
 /**
 * Service implementation for managing parking spot rentals.
-* Handles "rent now", fixed-period rentals, and cancellations.
-* Encapsulates all business rules such as availability checks, price calculation,
+* Handles "rent now", fixed-period rentals, advance reservations, and cancellations.
+* Encapsulates all business rules such as availability checks, pricing (delegated to PricingEngine),
 * active status management, and user association.
 * Marked as @Transactional to ensure atomic operations.
+* Every rent holds its spot for [startTime, blockedUntil). Overlaps with other rents and reservations
+* are rejected early by the ReservationIndex and authoritatively by the database exclusion constraint.
+* Every operation is timed (parking.rent.operations, tagged by operation and outcome,
+* including the commit) and lost races for a spot are counted (parking.rent.conflicts).
 */
 
 @Service
@@ -32,151 +44,295 @@ public class RentServiceImpl implements RentService {
 
     private final ParkingSpotRepository spotRepository;
     private final RentRepository rentRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final SpotAvailabilityIndex availabilityIndex;
+    private final RentExpiryEngine expiryEngine;
+    private final MeterRegistry meterRegistry;
+    private final PricingEngine pricingEngine;
+    private final ReservationIndex reservationIndex;
+    private final ReservationActivator reservationActivator;
+
+    @Value("${parking.reservation.max-days-ahead:90}")
+    private long maxDaysAhead;
 
     @Override
     public Rent rentSpotNow(Long spotId) {
-        ParkingSpot spot = getAvailableSpot(spotId);
-        User user = getCurrentUser();
+        return timed("rent_now", () -> doRentSpotNow(spotId));
+    }
+
+    @Override
+    public Rent rentSpotForPeriod(Long spotId, LocalDateTime endTime) {
+        return timed("rent_period", () -> doRentSpotForPeriod(spotId, endTime));
+    }
+
+    @Override
+    public Rent cancelRent(Long rentId) {
+        return timed("cancel", () -> doCancelRent(rentId));
+    }
+
+    @Override
+    public Rent bookSpot(Long spotId) {
+        return timed("book", () -> doBookSpot(spotId));
+    }
 
-        spot.setAvailable(false);
+    @Override
+    public Rent reserveSpot(Long spotId, LocalDateTime startTime, LocalDateTime endTime) {
+        return timed("reserve", () -> doReserveSpot(spotId, startTime, endTime));
+    }
 
+    @Override
+    public Rent cancelReservation(Long rentId) {
+        return timed("cancel_reservation", () -> doCancelReservation(rentId));
+    }
+
+    private Rent doRentSpotNow(Long spotId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime blockedUntil = expiryEngine.dueTime(now, null);
+        checkNotReserved(spotId, now, blockedUntil);
+        ParkingSpot spot = claimSpot(spotId);
+        User user = currentUserProvider.currentUserReference();
+
+        // Open-ended rent: the minimum billable duration is charged up front,
+        // and the rest when it is cancelled or expires.
         Rent rent = Rent.builder()
                 .parkingSpot(spot)
                 .user(user)
-                .startTime(LocalDateTime.now())
+                .startTime(now)
+                .blockedUntil(blockedUntil)
                 .active(true)
                 .priceAtRentTime(spot.getPricePerHour())
+                .totalPrice(pricingEngine.price(spot, now, null))
+                .paymentStatus(Rent.PaymentStatus.PENDING)
                 .build();
 
-        BigDecimal totalPrice = spot.getPricePerHour(); // minimum 1 hour
-        rent.setTotalPrice(totalPrice);
-        rent.setPriceAtRentTime(spot.getPricePerHour());
-        rent.setPaymentStatus(Rent.PaymentStatus.PENDING);
-
-        rentRepository.save(rent);
-        spotRepository.save(spot);
+        insert(rent);
+        expiryEngine.schedule(rent);
 
         return rent;
     }
 
-    private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated()) {
-            throw new IllegalStateException("User not authenticated");
-        }
-
-        Object principal = auth.getPrincipal();
-
-        if (principal instanceof User) {
-            return (User) principal;
-        }
-
-        String username;
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found in DB: " + username));
-    }
-
-    @Override
-    public Rent rentSpotForPeriod(Long spotId, LocalDateTime endTime) {
-        if (endTime.isBefore(LocalDateTime.now())) {
+    private Rent doRentSpotForPeriod(Long spotId, LocalDateTime endTime) {
+        LocalDateTime now = LocalDateTime.now();
+        if (endTime.isBefore(now)) {
             throw new IllegalArgumentException("End time cannot be in the past");
         }
 
-        ParkingSpot spot = getAvailableSpot(spotId);
-
-        User user = getCurrentUser();
+        checkNotReserved(spotId, now, endTime);
+        ParkingSpot spot = claimSpot(spotId);
 
-        spot.setAvailable(false);
+        User user = currentUserProvider.currentUserReference();
 
         Rent rent = Rent.builder()
                 .parkingSpot(spot)
                 .user(user)
-                .startTime(LocalDateTime.now())
+                .startTime(now)
                 .endTime(endTime)
+                .blockedUntil(endTime)
                 .active(true)
                 .priceAtRentTime(spot.getPricePerHour())
+                .totalPrice(pricingEngine.price(spot, now, endTime))
+                .paymentStatus(Rent.PaymentStatus.PENDING)
                 .build();
 
-        BigDecimal totalPrice = calculateTotalPrice(spot, LocalDateTime.now(), endTime);
-        rent.setTotalPrice(totalPrice);
-        rent.setEndTime(endTime);
-        rent.setPaymentStatus(Rent.PaymentStatus.PENDING);
-
-        rentRepository.save(rent);
-        spotRepository.save(spot);
+        insert(rent);
+        expiryEngine.schedule(rent);
 
         return rent;
     }
 
-    @Override
-    public void cancelRent(Long rentId) {
-        Rent rent = rentRepository.findById(rentId)
+    private Rent doCancelRent(Long rentId) {
+        // Loaded with its spot, which settling an open-ended rent needs for the zone.
+        Rent rent = rentRepository.findWithParkingSpotById(rentId)
                 .orElseThrow(() -> new RuntimeException("Rent not found"));
 
+        // Only the owner of the rent can cancel it.
+        // Reading the id of a lazy association is answered by its proxy, without a query.
+        if (!rent.getUser().getId().equals(currentUserProvider.currentUserId())) {
+            throw new IllegalStateException("You can only cancel your own rent");
+        }
+
+        if (rent.isReserved()) {
+            throw new IllegalStateException("Reservation has not started yet, cancel it as a reservation");
+        }
         if (!rent.isActive()) {
             throw new IllegalStateException("Rent is already inactive");
         }
 
         rent.setActive(false);
-        ParkingSpot spot = rent.getParkingSpot();
-        spot.setAvailable(true);
+        if (rent.getEndTime() == null) {
+            // An open-ended rent ends now and is charged for the time it actually held the spot.
+            LocalDateTime now = LocalDateTime.now();
+            rent.setEndTime(now);
+            rent.setTotalPrice(pricingEngine.settle(rent, now));
+        }
+        Long spotId = rent.getParkingSpot().getId();
 
         rentRepository.save(rent);
-        spotRepository.save(spot);
+        spotRepository.release(spotId);
+        availabilityIndex.releaseAfterCommit(spotId);
+        reservationIndex.removeAfterCommit(spotId, rentId);
+        expiryEngine.cancel(rentId);
+        return rent;
     }
 
-    private ParkingSpot getAvailableSpot(Long spotId) {
+    private Rent doReserveSpot(Long spotId, LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!startTime.isAfter(now)) {
+            throw new IllegalArgumentException("Start time must be in the future");
+        }
+        if (!endTime.isAfter(startTime)) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        if (startTime.isAfter(now.plusDays(maxDaysAhead))) {
+            throw new IllegalArgumentException("Reservations can be made at most " + maxDaysAhead + " days ahead");
+        }
+
+        // The spot is not claimed: it stays available until the reservation starts.
+        checkNotReserved(spotId, startTime, endTime);
         ParkingSpot spot = spotRepository.findById(spotId)
                 .orElseThrow(() -> new RuntimeException("Spot not found"));
 
-        if (!spot.isAvailable()) {
-            throw new IllegalStateException("Spot is already rented");
+        User user = currentUserProvider.currentUserReference();
+        Rent rent = Rent.builder()
+                .parkingSpot(spot)
+                .user(user)
+                .startTime(startTime)
+                .endTime(endTime)
+                .blockedUntil(endTime)
+                .active(false)
+                .reserved(true)
+                .priceAtRentTime(spot.getPricePerHour())
+                .totalPrice(pricingEngine.price(spot, startTime, endTime))
+                .paymentStatus(Rent.PaymentStatus.PENDING)
+                .build();
+
+        insert(rent);
+        reservationActivator.schedule(rent);
+        return rent;
+    }
+
+    private Rent doCancelReservation(Long rentId) {
+        Rent rent = rentRepository.findById(rentId)
+                .orElseThrow(() -> new RuntimeException("Rent not found"));
+
+        if (!rent.getUser().getId().equals(currentUserProvider.currentUserId())) {
+            throw new IllegalStateException("You can only cancel your own reservation");
+        }
+
+        if (!rent.isReserved()) {
+            throw new IllegalStateException("Rent is not a pending reservation");
         }
 
-        return spot;
+        rent.setReserved(false);
+        rentRepository.save(rent);
+        reservationIndex.removeAfterCommit(rent.getParkingSpot().getId(), rentId);
+        reservationActivator.cancel(rentId);
+        return rent;
+    }
+
+    // Fast path: rejects a booking that overlaps a known rent or reservation of the spot
+    // without touching the database.
+    private void checkNotReserved(Long spotId, LocalDateTime from, LocalDateTime to) {
+        if (!reservationIndex.isFree(spotId, from, to)) {
+            conflict("reservation");
+            throw new IllegalStateException("Spot is reserved for part of this period");
+        }
     }
 
-    private BigDecimal calculateTotalPrice(ParkingSpot spot, LocalDateTime start, LocalDateTime end) {
-        if (end == null) {
-            // For "rent now": minimum 1 hour charge
-            return spot.getPricePerHour().multiply(BigDecimal.valueOf(1)); // 1 час минимум
+    // Inserts the rent immediately rather than at commit, so an overlap caught by the database
+    // exclusion constraint (a booking this node did not know about) surfaces as a business error.
+    private void insert(Rent rent) {
+        try {
+            rentRepository.saveAndFlush(rent);
+        } catch (DataIntegrityViolationException e) {
+            conflict("database");
+            throw new IllegalStateException("Spot is not free for the requested period");
         }
-        long hours = java.time.Duration.between(start, end).toHours();
-        if (hours < 1) hours = 1;
-        return spot.getPricePerHour().multiply(BigDecimal.valueOf(hours));
+        reservationIndex.addAfterCommit(rent.getParkingSpot().getId(), rent.getId(),
+                rent.getStartTime(), rent.getBlockedUntil());
     }
 
-    @Override
-    @Transactional
-    public Rent bookSpot(Long spotId) {
-        ParkingSpot spot = spotRepository.findById(spotId)
-                .orElseThrow(() -> new RuntimeException("Parking spot not found"));
+    // Claims the spot with a single guarded UPDATE, so two concurrent bookings
+    // can never both win. The entity is loaded only after the claim succeeded.
+    private ParkingSpot claimSpot(Long spotId) {
+        // Fast path: spots this node already knows are taken are rejected without touching the database.
+        if (!availabilityIndex.tryClaim(spotId)) {
+            conflict("index");
+            throw new IllegalStateException("Spot is already rented");
+        }
 
-        if (!spot.isAvailable()) {
-            throw new IllegalStateException("Parking spot is already rented");
+        if (spotRepository.claimIfAvailable(spotId) == 0) {
+            if (!spotRepository.existsById(spotId)) {
+                availabilityIndex.forget(spotId);
+                throw new RuntimeException("Spot not found");
+            }
+            // The index was stale; keep the database's answer.
+            availabilityIndex.markTaken(spotId);
+            conflict("database");
+            throw new IllegalStateException("Spot is already rented");
         }
 
-        User user = getCurrentUser();
+        availabilityIndex.releaseOnRollback(spotId);
+        return spotRepository.findById(spotId)
+                .orElseThrow(() -> new RuntimeException("Spot not found"));
+    }
+
+    private Rent doBookSpot(Long spotId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime blockedUntil = expiryEngine.dueTime(now, null);
+        checkNotReserved(spotId, now, blockedUntil);
+        ParkingSpot spot = claimSpot(spotId);
+
+        User user = currentUserProvider.currentUserReference();
         Rent rent = Rent.builder()
                 .parkingSpot(spot)
                 .user(user)
-                .startTime(LocalDateTime.now())
+                .startTime(now)
+                .blockedUntil(blockedUntil)
                 .active(true)
                 .priceAtRentTime(spot.getPricePerHour())
-                .totalPrice(spot.getPricePerHour())
+                .totalPrice(pricingEngine.price(spot, now, null))
                 .paymentStatus(Rent.PaymentStatus.PAID)
                 .build();
 
-        spot.setAvailable(false);
+        insert(rent);
+        expiryEngine.schedule(rent);
+        return rent;
+    }
+
+    // Times the operation up to the end of its transaction, so commit latency is included.
+    // Outcome is "success", "rejected" for business rule violations, or "error".
+    private Rent timed(String operation, Supplier<Rent> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Rent rent;
+        try {
+            rent = action.get();
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            sample.stop(operationTimer(operation, "rejected"));
+            throw e;
+        } catch (RuntimeException e) {
+            sample.stop(operationTimer(operation, "error"));
+            throw e;
+        }
+        TransactionCallbacks.afterCompletion(committed ->
+                sample.stop(operationTimer(operation, committed ? "success" : "error")));
+        return rent;
+    }
+
+    private Timer operationTimer(String operation, String outcome) {
+        return Timer.builder("parking.rent.operations")
+                .description("Latency of rent operations")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 
-        spotRepository.save(spot);
-        return rentRepository.save(rent);
+    // Counts a booking attempt that lost the spot, by where the conflict was detected.
+    private void conflict(String source) {
+        Counter.builder("parking.rent.conflicts")
+                .description("Booking attempts rejected because the spot was already taken")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,271 @@
+package com.parking.samurai.util;
+
+import com.parking.samurai.dto.ParkingSpotPage;
+import com.parking.samurai.dto.ParkingSpotView;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+* Hand-written JSON encoding of ParkingSpotView lists, producing the same document shape as Jackson.
+* Each spot is encoded once into a prefix that ends right before its "available" value, so a list
+* can be re-rendered after availability changes by copying bytes, without re-serializing any field.
+* Price encodings are cached, since a garage has only a handful of distinct prices, and every output
+* is measured before it is written, so it is allocated once at its exact size and never copied.
+*/
+
+public final class ParkingSpotJson {
+
+    private static final int MAX_CACHED_PRICES = 4096;
+
+    private static final byte[] TRUE_CLOSE = ascii("true}");
+    private static final byte[] FALSE_CLOSE = ascii("false}");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+
+    private static final byte[] ID = ascii("{\"id\":");
+    private static final byte[] LOCATION = ascii(",\"location\":");
+    private static final byte[] PRICE = ascii(",\"pricePerHour\":");
+    private static final byte[] AVAILABLE = ascii(",\"available\":");
+    private static final byte[] ITEMS = ascii("{\"items\":[");
+    private static final byte[] NEXT_CURSOR = ascii("],\"nextCursor\":");
+
+    private static final Map<BigDecimal, byte[]> PRICES = new ConcurrentHashMap<>();
+
+    private ParkingSpotJson() {
+    }
+
+    // {"id":1,"location":"A-1","pricePerHour":2.50,"available":
+    public static byte[] prefix(ParkingSpotView spot) {
+        byte[] id = number(spot.id());
+        byte[] location = string(spot.location());
+        byte[] price = price(spot.pricePerHour());
+        byte[] prefix = new byte[ID.length + id.length + LOCATION.length + location.length
+                + PRICE.length + price.length + AVAILABLE.length];
+        int position = put(prefix, 0, ID);
+        position = put(prefix, position, id);
+        position = put(prefix, position, LOCATION);
+        position = put(prefix, position, location);
+        position = put(prefix, position, PRICE);
+        position = put(prefix, position, price);
+        put(prefix, position, AVAILABLE);
+        return prefix;
+    }
+
+    public static byte[][] prefixes(List<ParkingSpotView> spots) {
+        byte[][] prefixes = new byte[spots.size()][];
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = prefix(spots.get(i));
+        }
+        return prefixes;
+    }
+
+    // Renders the spots as a JSON array from their precomputed prefixes.
+    // With availableOnly, spots that are not available are left out.
+    public static byte[] writeArray(List<ParkingSpotView> spots, byte[][] prefixes, boolean availableOnly) {
+        return write(spots, prefixes, availableOnly, true);
+    }
+
+    // Same as writeArray, without the enclosing brackets: comma-separated elements, empty if none.
+    // Element lists of consecutive slices are combined with joinArray.
+    public static byte[] writeElements(List<ParkingSpotView> spots, byte[][] prefixes, boolean availableOnly) {
+        return write(spots, prefixes, availableOnly, false);
+    }
+
+    // Joins element lists from writeElements into one JSON array, skipping empty ones.
+    public static byte[] joinArray(List<byte[]> elements) {
+        int size = 2;
+        int count = 0;
+        for (byte[] part : elements) {
+            if (part.length > 0) {
+                size += part.length;
+                count++;
+            }
+        }
+        size += Math.max(0, count - 1);
+
+        byte[] json = new byte[size];
+        int position = 0;
+        json[position++] = '[';
+        for (byte[] part : elements) {
+            if (part.length == 0) {
+                continue;
+            }
+            if (position > 1) {
+                json[position++] = ',';
+            }
+            System.arraycopy(part, 0, json, position, part.length);
+            position += part.length;
+        }
+        json[position] = ']';
+        return json;
+    }
+
+    private static byte[] write(List<ParkingSpotView> spots, byte[][] prefixes, boolean availableOnly, boolean brackets) {
+        // Exact size first, so the result is allocated once and never grown.
+        byte[] json = new byte[(brackets ? 2 : 0) + elementsSize(spots, prefixes, availableOnly)];
+        int position = 0;
+        if (brackets) {
+            json[position++] = '[';
+        }
+        position = putElements(json, position, spots, prefixes, availableOnly);
+        if (brackets) {
+            json[position] = ']';
+        }
+        return json;
+    }
+
+    // {"items":[...],"nextCursor":123}
+    public static byte[] writePage(ParkingSpotPage page) {
+        List<ParkingSpotView> items = page.items();
+        byte[][] prefixes = prefixes(items);
+        byte[] cursor = number(page.nextCursor());
+
+        byte[] json = new byte[ITEMS.length + elementsSize(items, prefixes, false)
+                + NEXT_CURSOR.length + cursor.length + 1];
+        int position = put(json, 0, ITEMS);
+        position = putElements(json, position, items, prefixes, false);
+        position = put(json, position, NEXT_CURSOR);
+        position = put(json, position, cursor);
+        json[position] = '}';
+        return json;
+    }
+
+    private static int elementsSize(List<ParkingSpotView> spots, byte[][] prefixes, boolean availableOnly) {
+        int size = 0;
+        int count = 0;
+        for (int i = 0; i < prefixes.length; i++) {
+            boolean available = spots.get(i).available();
+            if (!availableOnly || available) {
+                size += prefixes[i].length + (available ? TRUE_CLOSE.length : FALSE_CLOSE.length);
+                count++;
+            }
+        }
+        return size + Math.max(0, count - 1);
+    }
+
+    // Writes comma-separated elements at position and returns the position after them.
+    private static int putElements(byte[] json, int position, List<ParkingSpotView> spots, byte[][] prefixes,
+                                   boolean availableOnly) {
+        boolean first = true;
+        for (int i = 0; i < prefixes.length; i++) {
+            boolean available = spots.get(i).available();
+            if (availableOnly && !available) {
+                continue;
+            }
+            if (!first) {
+                json[position++] = ',';
+            }
+            first = false;
+            position = put(json, position, prefixes[i]);
+            position = put(json, position, available ? TRUE_CLOSE : FALSE_CLOSE);
+        }
+        return position;
+    }
+
+    private static byte[] price(BigDecimal price) {
+        if (price == null) {
+            return NULL;
+        }
+        byte[] cached = PRICES.get(price);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] encoded = ascii(price.toString());
+        if (PRICES.size() < MAX_CACHED_PRICES) {
+            PRICES.putIfAbsent(price, encoded);
+        }
+        return encoded;
+    }
+
+    private static byte[] number(Long value) {
+        if (value == null) {
+            return NULL;
+        }
+        long v = value;
+        if (v < 0) {
+            return ascii(Long.toString(v));
+        }
+        // Digits are counted, then written back to front, without a String.
+        int length = 1;
+        for (long rest = v / 10; rest != 0; rest /= 10) {
+            length++;
+        }
+        byte[] digits = new byte[length];
+        do {
+            digits[--length] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        return digits;
+    }
+
+    // The quoted, escaped string. Locations are ASCII almost always: measured and written in one
+    // array. Anything else goes through a String and the UTF-8 encoder.
+    private static byte[] string(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        int size = 2;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                byte[] encoded = escape(value).getBytes(StandardCharsets.UTF_8);
+                byte[] quoted = new byte[encoded.length + 2];
+                quoted[0] = '"';
+                System.arraycopy(encoded, 0, quoted, 1, encoded.length);
+                quoted[quoted.length - 1] = '"';
+                return quoted;
+            }
+            size += c == '"' || c == '\\' ? 2 : c < 0x20 ? 6 : 1;
+        }
+
+        byte[] quoted = new byte[size];
+        int position = 0;
+        quoted[position++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted[position++] = '\\';
+                quoted[position++] = (byte) c;
+            } else if (c < 0x20) {
+                quoted[position++] = '\\';
+                quoted[position++] = 'u';
+                quoted[position++] = '0';
+                quoted[position++] = '0';
+                quoted[position++] = HEX[c >> 4];
+                quoted[position++] = HEX[c & 0xf];
+            } else {
+                quoted[position++] = (byte) c;
+            }
+        }
+        quoted[position] = '"';
+        return quoted;
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append("\\u00").append((char) HEX[c >> 4]).append((char) HEX[c & 0xf]);
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static int put(byte[] target, int position, byte[] data) {
+        System.arraycopy(data, 0, target, position, data.length);
+        return position + data.length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
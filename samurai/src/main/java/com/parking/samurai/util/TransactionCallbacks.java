@@ -0,0 +1,64 @@
+package com.parking.samurai.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+* Small helper for running in-memory side effects at transaction boundaries.
+* Node-local state (indexes, caches, timers) must only follow the database
+* once a transaction has actually committed, and must be undone on rollback.
+*/
+
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    // Runs the action after the current transaction commits.
+    // Without an active transaction the action runs immediately.
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Runs the action if the current transaction rolls back.
+    // Without an active transaction there is nothing to roll back, so the action is ignored.
+    public static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    // Runs the action once the current transaction completes, passing whether it committed.
+    // Without an active transaction the action runs immediately, as if committed.
+    public static void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+-- Baseline: the schema previously generated by Hibernate (ddl-auto=update).
+-- Databases created that way are baselined at this version and skip this script,
+-- so every index lives in later migrations.
+
+create sequence if not exists user_seq start with 1 increment by 50;
+create sequence if not exists parking_spot_seq start with 1 increment by 50;
+create sequence if not exists rent_seq start with 1 increment by 50;
+
+create table users (
+    id       bigint       not null,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    constraint pk_users primary key (id),
+    constraint uk_users_username unique (username)
+);
+
+create table parking_spots (
+    id             bigint        not null,
+    location       varchar(255)  not null,
+    price_per_hour numeric(38, 2),
+    available      boolean       not null,
+    constraint pk_parking_spots primary key (id)
+);
+
+create table rents (
+    id                 bigint        not null,
+    spot_id            bigint        not null,
+    user_id            bigint        not null,
+    start_time         timestamp(6)  not null,
+    end_time           timestamp(6),
+    active             boolean       not null,
+    price_at_rent_time numeric(38, 2),
+    total_price        numeric(38, 2),
+    payment_status     varchar(255)  not null,
+    constraint pk_rents primary key (id),
+    constraint fk_rents_spot foreign key (spot_id) references parking_spots (id),
+    constraint fk_rents_user foreign key (user_id) references users (id),
+    constraint ck_rents_payment_status check (payment_status in ('PENDING', 'PAID', 'FAILED', 'REFUNDED'))
+);
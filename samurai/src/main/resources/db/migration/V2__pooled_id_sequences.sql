@@ -0,0 +1,5 @@
+-- Entities allocate ids in blocks of 50 (pooled optimizer); sequences created by
+-- Hibernate before that still step by 1. No-op on databases created by V1.
+alter sequence if exists user_seq increment by 50;
+alter sequence if exists parking_spot_seq increment by 50;
+alter sequence if exists rent_seq increment by 50;
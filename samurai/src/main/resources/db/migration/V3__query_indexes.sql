@@ -0,0 +1,33 @@
+-- Indexes for the hot rent and spot lookups. Partial indexes cover only active rents,
+-- so they stay small no matter how much rent history accumulates.
+
+-- At most one active rent per spot; also serves findByParkingSpotIdAndActive(spotId, true).
+-- Fails if the data already contains a double booking, which must be resolved first.
+create unique index if not exists uk_rents_active_spot on rents (spot_id) where active;
+
+-- findTopByUserIdAndActiveTrue (my active rent).
+create index if not exists idx_rents_active_user on rents (user_id) where active;
+
+-- Expiry of "rent now" sessions: active, no end time, started before the cutoff.
+create index if not exists idx_rents_active_open_start on rents (start_time) where active and end_time is null;
+
+-- Expiry of fixed-period rents: active, end time passed.
+create index if not exists idx_rents_active_end on rents (end_time) where active and end_time is not null;
+
+-- History export by start time range.
+create index if not exists idx_rents_start_time on rents (start_time);
+
+-- Rent history per spot and per user; foreign keys are not indexed automatically.
+create index if not exists idx_rents_spot on rents (spot_id);
+create index if not exists idx_rents_user on rents (user_id);
+
+-- Filters of the paginated spot listing; every listing query also orders by id.
+create index if not exists idx_parking_spots_location on parking_spots (location);
+create index if not exists idx_parking_spots_available_id on parking_spots (available, id);
+create index if not exists idx_parking_spots_price_id on parking_spots (price_per_hour, id);
+
+-- Available spots (findByAvailable(true) and the snapshot's available list).
+create index if not exists idx_parking_spots_free on parking_spots (id) where available;
+
+-- Location prefix search (LIKE 'A-%') regardless of the database collation.
+create index if not exists idx_parking_spots_location_pattern on parking_spots (location text_pattern_ops);
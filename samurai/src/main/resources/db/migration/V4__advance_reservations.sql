@@ -0,0 +1,20 @@
+-- Advance reservations: a reserved rent holds its spot for a future period without occupying it yet.
+-- blocked_until is the end of the period a rent holds its spot: the end time of fixed-period rents
+-- and reservations, or start time plus the "rent now" timeout for open-ended rents.
+
+alter table rents add column if not exists reserved boolean not null default false;
+alter table rents add column if not exists blocked_until timestamp(6);
+
+-- Existing open-ended rents get the default 30 minute timeout.
+update rents set blocked_until = coalesce(end_time, start_time + interval '30 minutes') where blocked_until is null;
+alter table rents alter column blocked_until set not null;
+
+-- No two active or reserved rents of a spot may overlap. This is the authoritative conflict check
+-- across nodes; the in-memory ReservationIndex only rejects conflicts early.
+create extension if not exists btree_gist;
+alter table rents add constraint ex_rents_spot_period
+    exclude using gist (spot_id with =, tsrange(start_time, blocked_until) with &&)
+    where (active or reserved);
+
+-- Reservations due for activation.
+create index if not exists idx_rents_reserved_start on rents (start_time) where reserved;
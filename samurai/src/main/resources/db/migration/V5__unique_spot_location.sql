@@ -0,0 +1,8 @@
+-- Parking spot locations are unique. The import and the create endpoint check for an existing
+-- location before inserting, which two concurrent requests can both pass; the index decides.
+-- Fails if the data already contains duplicate locations, which must be resolved first:
+--   select location, count(*) from parking_spots group by location having count(*) > 1;
+create unique index if not exists uk_parking_spots_location on parking_spots (location);
+
+-- The plain location index from V3 is covered by the unique one.
+drop index if exists idx_parking_spots_location;
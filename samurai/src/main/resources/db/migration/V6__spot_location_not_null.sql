@@ -0,0 +1,18 @@
+-- V1 declares parking_spots.location and users.username not null, but the schema Hibernate
+-- generated before Flyway did not: databases baselined at V1 kept nullable columns.
+-- This brings them in line with databases created by V1; on those it is a no-op.
+
+-- Spots without a location get a placeholder, unique under uk_parking_spots_location,
+-- so they stay bookable and can be renamed later.
+update parking_spots set location = 'unnamed-' || id where location is null;
+alter table parking_spots alter column location set not null;
+
+-- A user without a username cannot log in, and there is nothing sensible to invent for one.
+do $$
+begin
+    if exists (select 1 from users where username is null) then
+        raise exception 'users without a username must be fixed before V6: select id from users where username is null';
+    end if;
+end
+$$;
+alter table users alter column username set not null;
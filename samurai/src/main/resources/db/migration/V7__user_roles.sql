@@ -0,0 +1,5 @@
+-- Users get a role, granted as the ROLE_<role> authority. Everyone starts as USER.
+-- There is no endpoint that grants ADMIN; promote accounts directly:
+--   update users set role = 'ADMIN' where username = '...';
+alter table users add column role varchar(20) not null default 'USER';
+alter table users add constraint ck_users_role check (role in ('USER', 'ADMIN'));
@@ -0,0 +1,74 @@
+package com.parking.samurai.cache;
+
+import com.parking.samurai.dto.ParkingSpotChange;
+import com.parking.samurai.dto.ParkingSpotView;
+import com.parking.samurai.util.ParkingSpotJson;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingSpotSnapshotTest {
+
+    @Test
+    void shouldRenderTheSameJsonAsAFullEncoding() {
+        List<ParkingSpotView> spots = spots(700);
+        ParkingSpotSnapshot snapshot = ParkingSpotSnapshot.of(1, spots);
+
+        assertArrayEquals(ParkingSpotJson.writeArray(spots, ParkingSpotJson.prefixes(spots), false), snapshot.allJson());
+        assertArrayEquals(ParkingSpotJson.writeArray(spots, ParkingSpotJson.prefixes(spots), true), snapshot.availableJson());
+        assertEquals(spots, snapshot.spots());
+        assertEquals(250, snapshot.ratesMinor()[0]);
+    }
+
+    @Test
+    void shouldPatchChangedSpotsOnly() {
+        List<ParkingSpotView> spots = spots(700);
+        ParkingSpotSnapshot snapshot = ParkingSpotSnapshot.of(1, spots);
+
+        ParkingSpotSnapshot patched = snapshot.withChanges(3, List.of(
+                new ParkingSpotChange(2, 2L, false),
+                new ParkingSpotChange(3, 600L, true)));
+
+        List<ParkingSpotView> expected = new ArrayList<>(spots);
+        expected.set(1, expected.get(1).withAvailable(false));
+        expected.set(599, expected.get(599).withAvailable(true));
+        byte[][] prefixes = ParkingSpotJson.prefixes(expected);
+        assertEquals(3, patched.version());
+        assertEquals(expected, patched.spots());
+        assertArrayEquals(ParkingSpotJson.writeArray(expected, prefixes, false), patched.allJson());
+        assertArrayEquals(ParkingSpotJson.writeArray(expected, prefixes, true), patched.availableJson());
+        assertSame(snapshot.ratesMinor(), patched.ratesMinor());
+        // The previous version is left as it was.
+        assertEquals(spots, snapshot.spots());
+    }
+
+    @Test
+    void shouldReturnNullForUnknownSpots() {
+        ParkingSpotSnapshot snapshot = ParkingSpotSnapshot.of(1, spots(3));
+
+        assertNull(snapshot.withChanges(2, List.of(new ParkingSpotChange(2, 99L, true))));
+    }
+
+    @Test
+    void shouldRenderEmptyLists() {
+        ParkingSpotSnapshot empty = ParkingSpotSnapshot.of(1, List.of());
+        ParkingSpotSnapshot noneAvailable = ParkingSpotSnapshot.of(1,
+                List.of(new ParkingSpotView(1L, "A-1", new BigDecimal("2.50"), false)));
+
+        assertEquals("[]", new String(empty.allJson()));
+        assertEquals("[]", new String(noneAvailable.availableJson()));
+    }
+
+    // Spots 1..count; even ids are available.
+    private static List<ParkingSpotView> spots(int count) {
+        List<ParkingSpotView> spots = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            spots.add(new ParkingSpotView(id, "A-" + id, new BigDecimal("2.50"), id % 2 == 0));
+        }
+        return spots;
+    }
+}
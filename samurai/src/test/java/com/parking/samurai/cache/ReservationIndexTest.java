@@ -0,0 +1,121 @@
+package com.parking.samurai.cache;
+
+import com.parking.samurai.dto.RentInterval;
+import com.parking.samurai.repository.RentRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReservationIndexTest {
+
+    private static final LocalDateTime TOMORROW = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+    private final RentRepository repository = mock(RentRepository.class);
+    private final ReservationIndex index = new ReservationIndex(repository);
+
+    @Test
+    void shouldDetectOverlapsWithHalfOpenIntervals() {
+        index.add(1L, 10L, at(14), at(16));
+
+        assertFalse(index.isFree(1L, at(15), at(17)));
+        assertFalse(index.isFree(1L, at(13), at(15)));
+        assertFalse(index.isFree(1L, at(12), at(18)));
+        assertTrue(index.isFree(1L, at(16), at(18)));
+        assertTrue(index.isFree(1L, at(12), at(14)));
+        assertTrue(index.isFree(2L, at(14), at(16)));
+    }
+
+    @Test
+    void shouldFindGapsBetweenSeveralReservations() {
+        index.add(1L, 11L, at(18), at(20));
+        index.add(1L, 10L, at(8), at(10));
+        index.add(1L, 12L, at(12), at(14));
+
+        assertTrue(index.isFree(1L, at(10), at(12)));
+        assertTrue(index.isFree(1L, at(14), at(18)));
+        assertFalse(index.isFree(1L, at(9), at(11)));
+        assertFalse(index.isFree(1L, at(13), at(19)));
+    }
+
+    @Test
+    void shouldFreeCancelledAndEndedBookings() {
+        index.add(1L, 10L, at(14), at(16));
+        index.add(1L, 11L, LocalDateTime.now().minusHours(3), LocalDateTime.now().minusHours(1));
+        index.remove(1L, 10L);
+
+        assertTrue(index.isFree(1L, at(14), at(16)));
+        assertArrayEquals(new long[0], index.blockedSpotIds(LocalDateTime.now().minusDays(1), at(23)));
+    }
+
+    @Test
+    void shouldListBlockedSpotsInIdOrder() {
+        index.add(30L, 1L, at(14), at(16));
+        index.add(10L, 2L, at(15), at(17));
+        index.add(20L, 3L, at(18), at(20));
+
+        assertArrayEquals(new long[]{10L, 30L}, index.blockedSpotIds(at(14), at(16)));
+        assertArrayEquals(new long[]{10L, 20L, 30L}, index.blockedSpotIds(at(0), at(23)));
+        assertArrayEquals(new long[0], index.blockedSpotIds(at(20), at(23)));
+    }
+
+    @Test
+    void shouldFindBookingsAcrossDaysAndLongWindows() {
+        index.add(1L, 10L, at(22), at(22).plusHours(4));
+        index.add(2L, 11L, at(8).plusDays(3), at(10).plusDays(3));
+        // Longer than a month: not bucketed by day, still found.
+        index.add(3L, 12L, at(8).minusHours(1), at(8).plusDays(40));
+
+        assertArrayEquals(new long[]{1L, 3L}, index.blockedSpotIds(at(23).plusHours(2), at(23).plusHours(3)));
+        assertArrayEquals(new long[]{2L, 3L}, index.blockedSpotIds(at(9).plusDays(3), at(11).plusDays(3)));
+        assertArrayEquals(new long[]{3L}, index.blockedSpotIds(at(0).plusDays(20), at(1).plusDays(20)));
+        // Windows longer than a week walk every booked spot.
+        assertArrayEquals(new long[]{1L, 2L, 3L}, index.blockedSpotIds(at(0), at(0).plusDays(10)));
+        assertArrayEquals(new long[0], index.blockedSpotIds(at(0).plusDays(50), at(0).plusDays(60)));
+    }
+
+    @Test
+    void shouldKeepBookingsMadeWhileRebuilding() {
+        index.add(1L, 10L, at(8), at(10));
+        when(repository.findBlockingIntervals(any())).thenAnswer(invocation -> {
+            // Committed after the query read its snapshot: neither change is in the result.
+            index.add(2L, 20L, at(12), at(14));
+            index.remove(1L, 10L);
+            return List.of(new RentInterval(10L, 1L, at(8), at(10)), new RentInterval(30L, 3L, at(16), at(18)));
+        });
+
+        index.rebuild();
+
+        assertTrue(index.isFree(1L, at(8), at(10)));
+        assertFalse(index.isFree(2L, at(12), at(14)));
+        assertFalse(index.isFree(3L, at(16), at(18)));
+        assertArrayEquals(new long[]{2L, 3L}, index.blockedSpotIds(at(0), at(23)));
+
+        // Recording stops with the rebuild.
+        doReturn(List.of()).when(repository).findBlockingIntervals(any());
+        index.rebuild();
+        assertArrayEquals(new long[0], index.blockedSpotIds(at(0), at(23)));
+    }
+
+    @Test
+    void shouldKeepTheCurrentIndexWhenTheRebuildFails() {
+        index.add(1L, 10L, at(8), at(10));
+        when(repository.findBlockingIntervals(any())).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, index::rebuild);
+
+        assertFalse(index.isFree(1L, at(8), at(10)));
+        index.add(2L, 20L, at(8), at(10));
+        assertFalse(index.isFree(2L, at(8), at(10)));
+    }
+
+    private static LocalDateTime at(int hour) {
+        return TOMORROW.withHour(hour);
+    }
+}
@@ -0,0 +1,135 @@
+package com.parking.samurai.cache;
+
+import com.parking.samurai.dto.SpotAvailability;
+import com.parking.samurai.repository.ParkingSpotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SpotAvailabilityIndexTest {
+
+    private final ParkingSpotRepository repository = mock(ParkingSpotRepository.class);
+    private final SpotAvailabilityIndex index = new SpotAvailabilityIndex(repository);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldClaimUnknownAndFreeSpotsOnce() {
+        assertTrue(index.tryClaim(1L));
+        assertFalse(index.tryClaim(1L));
+        assertTrue(index.isKnownTaken(1L));
+
+        index.markAvailable(1L);
+        assertTrue(index.tryClaim(1L));
+        assertFalse(index.tryClaim(1L));
+
+        // Ids outside the index are left to the database.
+        assertTrue(index.tryClaim(null));
+        assertTrue(index.tryClaim(-1L));
+    }
+
+    @Test
+    void shouldReleaseOnRollbackOnly() {
+        index.tryClaim(1L);
+        index.tryClaim(2L);
+
+        complete(() -> index.releaseOnRollback(1L), TransactionSynchronization.STATUS_ROLLED_BACK);
+        complete(() -> index.releaseOnRollback(2L), TransactionSynchronization.STATUS_COMMITTED);
+
+        assertFalse(index.isKnownTaken(1L));
+        assertTrue(index.isKnownTaken(2L));
+
+        // Without a transaction there is nothing to roll back.
+        index.releaseOnRollback(2L);
+        assertTrue(index.isKnownTaken(2L));
+    }
+
+    @Test
+    void shouldReleaseAfterCommitOnly() {
+        index.tryClaim(1L);
+        index.tryClaim(2L);
+
+        complete(() -> index.releaseAfterCommit(1L), TransactionSynchronization.STATUS_COMMITTED);
+        complete(() -> index.releaseAfterCommit(2L), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertFalse(index.isKnownTaken(1L));
+        assertTrue(index.isKnownTaken(2L));
+
+        // Without a transaction the release applies immediately.
+        index.releaseAfterCommit(2L);
+        assertFalse(index.isKnownTaken(2L));
+    }
+
+    @Test
+    void shouldLoadStatesOnRebuild() {
+        index.markTaken(3L);
+        when(repository.findAllAvailability()).thenReturn(List.of(
+                new SpotAvailability(1L, true),
+                new SpotAvailability(2L, false),
+                new SpotAvailability(3L, true)));
+
+        index.rebuild();
+
+        assertFalse(index.isKnownTaken(1L));
+        assertTrue(index.isKnownTaken(2L));
+        assertFalse(index.isKnownTaken(3L));
+    }
+
+    @Test
+    void shouldKeepReleasesMadeWhileRebuildIsReading() {
+        index.tryClaim(1L);
+        index.tryClaim(2L);
+        // The query sees both spots taken, then a cancellation of spot 1 commits before the rebuild applies it.
+        when(repository.findAllAvailability()).thenAnswer(invocation -> {
+            List<SpotAvailability> read = List.of(new SpotAvailability(1L, false), new SpotAvailability(2L, false));
+            index.releaseAfterCommit(1L);
+            return read;
+        });
+
+        index.rebuild();
+
+        assertFalse(index.isKnownTaken(1L));
+        assertTrue(index.tryClaim(1L));
+        assertTrue(index.isKnownTaken(2L));
+    }
+
+    @Test
+    void shouldKeepClaimsMadeWhileRebuildIsReading() {
+        when(repository.findAllAvailability()).thenAnswer(invocation -> {
+            List<SpotAvailability> read = List.of(new SpotAvailability(1L, true));
+            index.tryClaim(1L);
+            return read;
+        });
+
+        index.rebuild();
+
+        assertTrue(index.isKnownTaken(1L));
+    }
+
+    // Runs the action inside a simulated transaction that completes with the given status.
+    private static void complete(Runnable action, int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+            }
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
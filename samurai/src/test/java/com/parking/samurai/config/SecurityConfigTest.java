@@ -0,0 +1,49 @@
+package com.parking.samurai.config;
+
+import com.parking.samurai.security.JwtService;
+import com.parking.samurai.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+* Of the actuator endpoints only health is public; the Prometheus scrape endpoint is admin-only,
+* since anyone can register and authenticate.
+*/
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void shouldServeHealthWithoutAuthentication() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldKeepPrometheusFromAnonymousCallersAndUsers() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(testData.user("metrics"))))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,237 @@
+package com.parking.samurai.controller;
+
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.entity.User;
+import com.parking.samurai.repository.ParkingSpotRepository;
+import com.parking.samurai.repository.UserRepository;
+import com.parking.samurai.security.JwtService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* Load test for the booking path: thousands of virtual users book and cancel a small
+* pool of parking spots over real HTTP, then the database is checked for double bookings.
+* Reports p50/p99 latency and throughput for book and cancel.
+*
+* <p>Excluded from the default build. Run against the local stack (docker-compose PostgreSQL):
+* mvn -Pload-test test -Dload.users=2000 -Dload.spots=200 -Dload.duration-seconds=30</p>
+*/
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Tag("load")
+class BookingLoadTest {
+
+    private static final int USERS = Integer.getInteger("load.users", 2000);
+    private static final int SPOTS = Integer.getInteger("load.spots", 200);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 30);
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ParkingSpotRepository spotRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldNeverDoubleBookUnderContention() throws Exception {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        List<String> tokens = createUsers(runId);
+        List<Long> spotIds = createSpots(runId);
+
+        String baseUrl = "http://localhost:" + environment.getProperty("local.server.port") + "/api/v1/rents";
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        Map<Integer, LongAdder> bookStatuses = new ConcurrentHashMap<>();
+        LongAdder cancelFailures = new LongAdder();
+        List<LatencyRecorder> bookLatencies = new ArrayList<>();
+        List<LatencyRecorder> cancelLatencies = new ArrayList<>();
+        AtomicLong firstFailedRentId = new AtomicLong();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(DURATION_SECONDS).toNanos();
+        long started = System.nanoTime();
+
+        try (ExecutorService virtualUsers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String token : tokens) {
+                LatencyRecorder book = new LatencyRecorder();
+                LatencyRecorder cancel = new LatencyRecorder();
+                bookLatencies.add(book);
+                cancelLatencies.add(cancel);
+
+                virtualUsers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Long spotId = spotIds.get(random.nextInt(spotIds.size()));
+
+                        long begin = System.nanoTime();
+                        HttpResponse<String> booked = post(client, baseUrl + "/book/" + spotId, token);
+                        book.record(System.nanoTime() - begin);
+                        bookStatuses.computeIfAbsent(booked.statusCode(), status -> new LongAdder()).increment();
+                        if (booked.statusCode() != 201) {
+                            continue;
+                        }
+
+                        long rentId = objectMapper.readTree(booked.body()).get("id").asLong();
+                        begin = System.nanoTime();
+                        HttpResponse<String> cancelled = post(client, baseUrl + "/cancel/" + rentId, token);
+                        cancel.record(System.nanoTime() - begin);
+                        if (cancelled.statusCode() != 204) {
+                            cancelFailures.increment();
+                            firstFailedRentId.compareAndSet(0, rentId);
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        report("book", LatencyRecorder.merge(bookLatencies), elapsedSeconds);
+        report("cancel", LatencyRecorder.merge(cancelLatencies), elapsedSeconds);
+        System.out.printf("book statuses: %s%n", bookStatuses);
+
+        assertTrue(bookStatuses.containsKey(201), "No booking succeeded");
+        assertEquals(0, cancelFailures.sum(), "Cancel failed, first rent id " + firstFailedRentId.get());
+        assertEquals(List.of(), findDoubleBookedSpots(spotIds), "Spots with more than one active rent");
+        assertEquals(List.of(), findInconsistentSpots(spotIds), "Spots whose availability disagrees with their rents");
+    }
+
+    // Users are inserted directly and given tokens by JwtService: registering thousands of users
+    // through the API would mostly benchmark the password encoder.
+    private List<String> createUsers(String runId) {
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder().username("load-" + runId + "-" + i).password("{noop}load").build());
+        }
+        return userRepository.saveAll(users).stream()
+                .map(jwtService::generateToken)
+                .toList();
+    }
+
+    private List<Long> createSpots(String runId) {
+        List<ParkingSpot> spots = new ArrayList<>(SPOTS);
+        for (int i = 0; i < SPOTS; i++) {
+            spots.add(ParkingSpot.builder()
+                    .location("LOAD-" + runId + "-" + i)
+                    .pricePerHour(new BigDecimal("2.50"))
+                    .available(true)
+                    .build());
+        }
+        return spotRepository.saveAll(spots).stream()
+                .map(ParkingSpot::getId)
+                .toList();
+    }
+
+    private List<Long> findDoubleBookedSpots(List<Long> spotIds) {
+        return jdbcTemplate.queryForList("""
+                select spot_id from rents
+                where active = true and spot_id in (:spotIds)
+                group by spot_id
+                having count(*) > 1
+                """, Map.of("spotIds", spotIds), Long.class);
+    }
+
+    // A free spot must have no active rent, a taken spot exactly one.
+    private List<Long> findInconsistentSpots(List<Long> spotIds) {
+        return jdbcTemplate.queryForList("""
+                select s.id from parking_spots s
+                left join rents r on r.spot_id = s.id and r.active = true
+                where s.id in (:spotIds)
+                group by s.id, s.available
+                having (s.available = true and count(r.id) > 0)
+                    or (s.available = false and count(r.id) <> 1)
+                """, Map.of("spotIds", spotIds), Long.class);
+    }
+
+    private static HttpResponse<String> post(HttpClient client, String url, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void report(String operation, long[] latencies, double elapsedSeconds) {
+        if (latencies.length == 0) {
+            System.out.printf("%-6s no requests%n", operation);
+            return;
+        }
+        System.out.printf("%-6s requests=%d throughput=%.1f/s p50=%.2fms p99=%.2fms max=%.2fms%n",
+                operation,
+                latencies.length,
+                latencies.length / elapsedSeconds,
+                percentile(latencies, 0.50) / 1e6,
+                percentile(latencies, 0.99) / 1e6,
+                latencies[latencies.length - 1] / 1e6);
+    }
+
+    // Nearest-rank percentile of a sorted array.
+    private static long percentile(long[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    // Per-user latency samples; each recorder is written by a single virtual user only.
+    private static final class LatencyRecorder {
+
+        private long[] samples = new long[256];
+        private int size;
+
+        void record(long nanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        static long[] merge(List<LatencyRecorder> recorders) {
+            int total = recorders.stream().mapToInt(recorder -> recorder.size).sum();
+            long[] merged = new long[total];
+            int offset = 0;
+            for (LatencyRecorder recorder : recorders) {
+                System.arraycopy(recorder.samples, 0, merged, offset, recorder.size);
+                offset += recorder.size;
+            }
+            Arrays.sort(merged);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.parking.samurai.controller;
+
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.security.JwtService;
+import com.parking.samurai.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+* Keyset pagination of GET /api/v1/parking-spots/page: pages continue strictly after the cursor,
+* a full last page is followed by an empty one without a cursor, and LIKE wildcards in the
+* location prefix match literally.
+*/
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class ParkingSpotPageTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TestData testData;
+
+    private String authorization;
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        authorization = "Bearer " + jwtService.generateToken(testData.user("page"));
+        prefix = TestData.unique("PAGE") + "-";
+    }
+
+    @Test
+    void shouldContinueStrictlyAfterTheCursor() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(spot(prefix + "P" + i).getId());
+        }
+
+        JsonNode first = page(prefix + "P", null, 2);
+        assertEquals(ids.subList(0, 2), itemIds(first));
+        assertEquals(ids.get(1), first.get("nextCursor").asLong());
+
+        // A full last page still returns a cursor; the page after it is empty and has none.
+        JsonNode second = page(prefix + "P", ids.get(1), 2);
+        assertEquals(ids.subList(2, 4), itemIds(second));
+        assertEquals(ids.get(3), second.get("nextCursor").asLong());
+
+        JsonNode last = page(prefix + "P", ids.get(3), 2);
+        assertEquals(List.of(), itemIds(last));
+        assertTrue(last.get("nextCursor").isNull());
+
+        // A cursor between ids starts at the next existing one.
+        assertEquals(ids.subList(1, 4), itemIds(page(prefix + "P", ids.get(0), 10)));
+    }
+
+    @Test
+    void shouldMatchWildcardsInTheLocationPrefixLiterally() throws Exception {
+        ParkingSpot underscore = spot(prefix + "A_1");
+        spot(prefix + "AB1");
+        ParkingSpot percent = spot(prefix + "A%1");
+        spot(prefix + "AXX1");
+        ParkingSpot backslash = spot(prefix + "A\\1");
+
+        assertEquals(List.of(underscore.getId()), itemIds(page(prefix + "A_", null, 10)));
+        assertEquals(List.of(percent.getId()), itemIds(page(prefix + "A%", null, 10)));
+        assertEquals(List.of(backslash.getId()), itemIds(page(prefix + "A\\", null, 10)));
+        assertEquals(5, itemIds(page(prefix + "A", null, 10)).size());
+    }
+
+    private ParkingSpot spot(String location) {
+        return testData.spot(location, new BigDecimal("2.00"), true);
+    }
+
+    private JsonNode page(String locationPrefix, Long after, int limit) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/v1/parking-spots/page")
+                .header("Authorization", authorization)
+                .param("locationPrefix", locationPrefix)
+                .param("limit", String.valueOf(limit));
+        if (after != null) {
+            request.param("after", after.toString());
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static List<Long> itemIds(JsonNode page) {
+        List<Long> ids = new ArrayList<>();
+        page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+        return ids;
+    }
+}
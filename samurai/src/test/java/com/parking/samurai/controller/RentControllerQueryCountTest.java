@@ -0,0 +1,117 @@
+package com.parking.samurai.controller;
+
+import com.parking.samurai.security.JwtService;
+import com.parking.samurai.support.TestData;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+* Pins the number of SQL statements each rent endpoint issues, so a lazy-loading
+* regression (an extra SELECT per association) fails the build.
+* Sequence calls are not counted: with pooled ids they happen once per 50 inserts.
+*/
+
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.parking.samurai.controller.RentControllerQueryCountTest$StatementCounter")
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class RentControllerQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private String authorization;
+    private Long spotId;
+
+    @BeforeEach
+    void setUp() {
+        authorization = "Bearer " + jwtService.generateToken(testData.user("query-count"));
+        spotId = testData.spot("QC", new BigDecimal("4.00"), true).getId();
+    }
+
+    @Test
+    void shouldUseFixedNumberOfStatementsPerEndpoint() throws Exception {
+        // Claim update, spot select, rent insert.
+        StatementCounter.start();
+        MvcResult booked = mockMvc.perform(post("/api/v1/rents/book/{spotId}", spotId)
+                        .header("Authorization", authorization))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.spotId").value(spotId))
+                .andReturn();
+        assertStatements(3, "book");
+
+        long rentId = objectMapper.readTree(booked.getResponse().getContentAsString()).get("id").asLong();
+
+        // Rent joined with its spot.
+        StatementCounter.start();
+        mockMvc.perform(get("/api/v1/rents/my-active")
+                        .header("Authorization", authorization))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(rentId))
+                .andExpect(jsonPath("$.spotLocation").isNotEmpty());
+        assertStatements(1, "my-active");
+
+        // Rent select, spot release, rent update.
+        StatementCounter.start();
+        mockMvc.perform(post("/api/v1/rents/cancel/{rentId}", rentId)
+                        .header("Authorization", authorization))
+                .andExpect(status().isNoContent());
+        assertStatements(3, "cancel");
+    }
+
+    private static void assertStatements(int expected, String endpoint) {
+        List<String> statements = StatementCounter.stop();
+        assertEquals(expected, statements.size(), endpoint + " issued " + statements);
+    }
+
+    // Counts statements issued by the current thread only, so background jobs do not interfere.
+    public static class StatementCounter implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+        static void start() {
+            STATEMENTS.set(new ArrayList<>());
+        }
+
+        static List<String> stop() {
+            List<String> statements = STATEMENTS.get();
+            STATEMENTS.remove();
+            return statements;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = STATEMENTS.get();
+            if (statements != null && !sql.contains("nextval")) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.parking.samurai.controller;
+
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.entity.Rent;
+import com.parking.samurai.entity.User;
+import com.parking.samurai.repository.RentRepository;
+import com.parking.samurai.security.JwtService;
+import com.parking.samurai.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+* The rent exports over HTTP: a user streams only their own rents, only admins may stream
+* every user's rents, and both run with the export timeout instead of the MVC default.
+*/
+
+@SpringBootTest(properties = "parking.export.timeout-ms=1234567")
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class RentExportControllerTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 7, 1, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private RentRepository rentRepository;
+
+    private User user;
+    private User otherUser;
+    private ParkingSpot spot;
+
+    @BeforeEach
+    void setUp() {
+        user = testData.user("export");
+        otherUser = testData.user("export");
+        spot = testData.spot("EXPORT");
+    }
+
+    @Test
+    void shouldStreamEveryUsersRentsToAdmins() throws Exception {
+        Rent own = rent(user);
+        Rent other = rent(otherUser);
+        User admin = testData.user("export-admin", User.Role.ADMIN);
+
+        // Other tests may have left rents in the same window, so only these two are checked.
+        List<Long> ids = exportedIds("/api/v1/rents/export/all", admin);
+        assertTrue(ids.containsAll(List.of(own.getId(), other.getId())));
+    }
+
+    @Test
+    void shouldForbidTheFullExportToUsers() throws Exception {
+        rent(otherUser);
+
+        mockMvc.perform(get("/api/v1/rents/export/all")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(user)))
+                .andExpect(status().isForbidden())
+                .andExpect(request().asyncNotStarted());
+    }
+
+    @Test
+    void shouldStreamOnlyTheUsersOwnRents() throws Exception {
+        Rent own = rent(user);
+        rent(otherUser);
+
+        assertEquals(List.of(own.getId()), exportedIds("/api/v1/rents/export", user));
+    }
+
+    private List<Long> exportedIds(String path, User caller) throws Exception {
+        MvcResult started = mockMvc.perform(get(path)
+                        .header("Authorization", "Bearer " + jwtService.generateToken(caller))
+                        .param("from", DAY.toString())
+                        .param("to", DAY.plusDays(1).toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(1234567, started.getRequest().getAsyncContext().getTimeout());
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        return body.lines()
+                .map(line -> objectMapper.readTree(line).get("id").asLong())
+                .toList();
+    }
+
+    // Finished rents, so they never conflict with each other on the spot.
+    private Rent rent(User owner) {
+        return rentRepository.save(Rent.builder()
+                .parkingSpot(spot)
+                .user(owner)
+                .startTime(DAY.plusHours(1))
+                .endTime(DAY.plusHours(2))
+                .blockedUntil(DAY.plusHours(2))
+                .active(false)
+                .priceAtRentTime(spot.getPricePerHour())
+                .totalPrice(new BigDecimal("2.00"))
+                .paymentStatus(Rent.PaymentStatus.PAID)
+                .build());
+    }
+}
@@ -0,0 +1,126 @@
+package com.parking.samurai.pricing;
+
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.entity.Rent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TariffPricingEngineTest {
+
+    private static final LocalDateTime MIDNIGHT = LocalDateTime.of(2026, 3, 2, 0, 0);
+
+    @Test
+    void shouldBillStartedMinutesAtTheHourlyRate() {
+        PricingEngine engine = new TariffPricingEngine("", "", 0, 0);
+        LocalDateTime start = MIDNIGHT.withHour(8).withMinute(10);
+
+        // 205 minutes at 2.50/h = 854.17 cents
+        assertEquals(854, engine.priceMinor("A-1", 250, start, start.plusHours(3).plusMinutes(25)));
+        // 30 minutes and 1 second are billed as 31 minutes
+        assertEquals(129, engine.priceMinor("A-1", 250, start, start.plusMinutes(30).plusSeconds(1)));
+    }
+
+    @Test
+    void shouldChargeTheMinimumDurationForShortAndOpenEndedRents() {
+        PricingEngine engine = new TariffPricingEngine("", "", 0, 60);
+
+        assertEquals(250, engine.priceMinor("A-1", 250, MIDNIGHT, MIDNIGHT.plusMinutes(10)));
+        assertEquals(250, engine.priceMinor("A-1", 250, MIDNIGHT, null));
+    }
+
+    @Test
+    void shouldApplyTimeOfDayBandsAndZoneMultipliers() {
+        PricingEngine engine = new TariffPricingEngine("00:00-07:00=0.5,19:00-24:00=0.75", "VIP=2.0", 0, 0);
+        LocalDateTime start = MIDNIGHT.withHour(6);
+
+        // 60 minutes at 0.5 plus 60 minutes at 1.0
+        assertEquals(300, engine.priceMinor("A-1", 200, start, start.plusHours(2)));
+        assertEquals(600, engine.priceMinor("VIP-3", 200, start, start.plusHours(2)));
+        // 18:30-19:30: 30 minutes at 1.0 plus 30 minutes at 0.75
+        assertEquals(175, engine.priceMinor("A-1", 200, MIDNIGHT.withHour(18).withMinute(30), MIDNIGHT.withHour(19).withMinute(30)));
+    }
+
+    @Test
+    void shouldCapEachCalendarDay() {
+        PricingEngine engine = new TariffPricingEngine("", "VIP=2.0@12", 10, 0);
+
+        assertEquals(3 * 2000, engine.priceMinor("A-1", 200, MIDNIGHT, MIDNIGHT.plusDays(3)));
+        // 22:00 to 02:00 two days later: 2h, one capped day, 2h
+        assertEquals(400 + 2000 + 400, engine.priceMinor("A-1", 200, MIDNIGHT.withHour(22), MIDNIGHT.plusDays(2).withHour(2)));
+        // Zone cap overrides the default one and is charged at the zone's rate: 12h at 2.0
+        assertEquals(12 * 200 * 2, engine.priceMinor("VIP-1", 200, MIDNIGHT, MIDNIGHT.plusDays(1)));
+        // Below the cap
+        assertEquals(8 * 200 * 2, engine.priceMinor("VIP-1", 200, MIDNIGHT, MIDNIGHT.plusHours(8)));
+    }
+
+    @Test
+    void shouldApplyTheZoneMultiplierToTheDefaultCap() {
+        PricingEngine engine = new TariffPricingEngine("", "A=1.5", 10, 0);
+
+        assertEquals(10 * 200 * 3 / 2, engine.priceMinor("A-1", 200, MIDNIGHT, MIDNIGHT.plusDays(1)));
+        assertEquals(10 * 200, engine.priceMinor("B-1", 200, MIDNIGHT, MIDNIGHT.plusDays(1)));
+    }
+
+    @Test
+    void shouldPickTheLongestMatchingZonePrefix() {
+        PricingEngine engine = new TariffPricingEngine("", "A=1.0,AB=3.0", 0, 0);
+        LocalDateTime end = MIDNIGHT.plusHours(1);
+
+        assertEquals(100, engine.priceMinor("A-1", 100, MIDNIGHT, end));
+        assertEquals(300, engine.priceMinor("AB-1", 100, MIDNIGHT, end));
+        assertEquals(300, engine.priceMinor("ab", 100, MIDNIGHT, end));
+        assertEquals(100, engine.priceMinor("ABC-1", 100, MIDNIGHT, end));
+    }
+
+    @Test
+    void shouldConvertAtTheBoundary() {
+        PricingEngine engine = new TariffPricingEngine("", "", 0, 60);
+        ParkingSpot spot = ParkingSpot.builder().location("A-1").pricePerHour(new BigDecimal("2.5")).build();
+
+        assertEquals(new BigDecimal("3.75"), engine.price(spot, MIDNIGHT, MIDNIGHT.plusMinutes(90)));
+    }
+
+    @Test
+    void shouldRejectSpotsWithoutAPrice() {
+        PricingEngine engine = new TariffPricingEngine("", "", 0, 60);
+        ParkingSpot spot = ParkingSpot.builder().id(5L).location("A-1").build();
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> engine.price(spot, MIDNIGHT, MIDNIGHT.plusMinutes(90)));
+        assertEquals("Parking spot 5 has no price per hour", error.getMessage());
+    }
+
+    @Test
+    void shouldSettleAtThePriceTheRentWasBookedAt() {
+        PricingEngine engine = new TariffPricingEngine("", "VIP=2.0", 0, 60);
+        ParkingSpot spot = ParkingSpot.builder().location("VIP-1").pricePerHour(new BigDecimal("9.00")).build();
+        Rent rent = Rent.builder().parkingSpot(spot).startTime(MIDNIGHT).priceAtRentTime(new BigDecimal("2.00")).build();
+
+        // 150 minutes at 2.00/h in the 2.0 zone.
+        assertEquals(new BigDecimal("10.00"), engine.settle(rent, MIDNIGHT.plusMinutes(150)));
+    }
+
+    @Test
+    void shouldRejectPricesThatWouldOverflow() {
+        PricingEngine engine = new TariffPricingEngine("", "", 10, 0);
+
+        assertThrows(IllegalStateException.class,
+                () -> engine.priceMinor("A-1", Long.MAX_VALUE / 1000, MIDNIGHT, MIDNIGHT.plusHours(1)));
+        // Each capped day fits, their sum over almost a billion years does not.
+        assertThrows(IllegalStateException.class,
+                () -> engine.priceMinor("A-1", 100_000_000, MIDNIGHT, MIDNIGHT.plusYears(999_000_000)));
+        // A day's weight at this multiplier does not fit in a long.
+        assertThrows(IllegalStateException.class, () -> new TariffPricingEngine("", "Z=100000000", 0, 0));
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalStateException.class, () -> new TariffPricingEngine("07:00=1.0", "", 0, 0));
+        assertThrows(IllegalStateException.class, () -> new TariffPricingEngine("19:00-07:00=1.0", "", 0, 0));
+        assertThrows(IllegalStateException.class, () -> new TariffPricingEngine("", "=1.0", 0, 0));
+    }
+}
@@ -0,0 +1,123 @@
+package com.parking.samurai.repository;
+
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.entity.Rent;
+import com.parking.samurai.entity.User;
+import com.parking.samurai.scheduler.RentExpirationScheduler;
+import com.parking.samurai.support.TestData;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* Verifies that bulk inserts and entity-mode expiry use pooled ids and JDBC batches:
+* the number of prepared statements must grow with the number of batches, not rows.
+*/
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "parking.rent.expiry.bulk=false"
+})
+@Import(TestData.class)
+class PersistenceBatchingTest {
+
+    private static final int ROWS = 200;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private ParkingSpotRepository spotRepository;
+
+    @Autowired
+    private RentRepository rentRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private RentExpirationScheduler expirationScheduler;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void shouldBatchBulkSpotInserts() {
+        List<ParkingSpot> spots = newSpots("BATCH-INSERT");
+
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> spotRepository.saveAll(spots));
+
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        // One nextval per 50 ids plus one insert statement per batch.
+        assertTrue(statistics.getPrepareStatementCount() <= 2L * (ROWS / BATCH_SIZE + 1),
+                "Prepared " + statistics.getPrepareStatementCount() + " statements for " + ROWS + " inserts");
+    }
+
+    @Test
+    void shouldBatchEntityModeExpiryUpdates() {
+        List<Long> rentIds = transactionTemplate.execute(status -> {
+            User user = testData.user("batch");
+            List<ParkingSpot> spots = spotRepository.saveAll(newSpots("BATCH-EXPIRY"));
+
+            List<Rent> rents = new ArrayList<>(ROWS);
+            for (ParkingSpot spot : spots) {
+                spot.setAvailable(false);
+                rents.add(Rent.builder()
+                        .parkingSpot(spot)
+                        .user(user)
+                        .startTime(LocalDateTime.now().minusHours(2))
+                        .endTime(LocalDateTime.now().minusMinutes(1))
+                        .blockedUntil(LocalDateTime.now().minusMinutes(1))
+                        .priceAtRentTime(spot.getPricePerHour())
+                        .totalPrice(spot.getPricePerHour())
+                        .paymentStatus(Rent.PaymentStatus.PAID)
+                        .build());
+            }
+            return rentRepository.saveAll(rents).stream().map(Rent::getId).toList();
+        });
+
+        statistics.clear();
+        expirationScheduler.expireRents(rentIds);
+
+        // Each rent and its spot are updated.
+        assertEquals(2L * ROWS, statistics.getEntityUpdateCount());
+        // One select (rents joined with spots), then one statement per batch for rents and for spots.
+        assertTrue(statistics.getPrepareStatementCount() <= 1 + 2L * (ROWS / BATCH_SIZE + 1),
+                "Prepared " + statistics.getPrepareStatementCount() + " statements to expire " + ROWS + " rents");
+        assertTrue(rentRepository.findByIdInAndActiveTrue(rentIds).isEmpty());
+    }
+
+    private static List<ParkingSpot> newSpots(String prefix) {
+        List<ParkingSpot> spots = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            spots.add(ParkingSpot.builder()
+                    .location(TestData.unique(prefix))
+                    .pricePerHour(new BigDecimal("3.00"))
+                    .available(true)
+                    .build());
+        }
+        return spots;
+    }
+}
@@ -0,0 +1,190 @@
+package com.parking.samurai.scheduler;
+
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.entity.Rent;
+import com.parking.samurai.entity.User;
+import com.parking.samurai.repository.ParkingSpotRepository;
+import com.parking.samurai.repository.RentRepository;
+import com.parking.samurai.service.RentService;
+import com.parking.samurai.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.parking.samurai.support.TestData.authenticate;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* Expiry racing a cancel and rebook of the same spot: the sweep selects an overdue rent,
+* the owner cancels it and someone else books the spot before the sweep's update runs.
+* In both modes the sweep must skip the cancelled rent and leave the new rent's spot taken.
+* Expired "rent now" sessions are settled up to their timeout in both modes.
+*/
+
+@SpringBootTest(properties = "parking.rent.expiry-sweep-ms=3600000")
+@Import(TestData.class)
+class RentExpirationSchedulerTest {
+
+    @Autowired
+    private RentExpirationScheduler scheduler;
+
+    @Autowired
+    private RentService rentService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private ParkingSpotRepository spotRepository;
+
+    @Autowired
+    private RentRepository rentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldNotReleaseSpotRebookedWhileBulkSweepIsRunning() throws Exception {
+        // The bulk update waits for the cancelled rent's row lock.
+        raceCancelAndRebook(scheduler::expireDueRentsInBulk, "update rents%");
+    }
+
+    @Test
+    void shouldNotReleaseSpotRebookedWhileEntitySweepIsRunning() throws Exception {
+        ReflectionTestUtils.setField(scheduler, "bulkExpiry", false);
+        try {
+            // The locking select waits for the cancelled rent's row lock.
+            raceCancelAndRebook(scheduler::expireOldRents, "select%from rents%for %update%");
+        } finally {
+            ReflectionTestUtils.setField(scheduler, "bulkExpiry", true);
+        }
+    }
+
+    @Test
+    void shouldSettleExpiredRentNowSessionsUpToTheirTimeout() {
+        Rent bulk = expiredSession();
+        scheduler.expireRents(List.of(bulk.getId()));
+        assertSettled(bulk);
+
+        ReflectionTestUtils.setField(scheduler, "bulkExpiry", false);
+        try {
+            Rent entity = expiredSession();
+            scheduler.expireRents(List.of(entity.getId()));
+            assertSettled(entity);
+        } finally {
+            ReflectionTestUtils.setField(scheduler, "bulkExpiry", true);
+        }
+    }
+
+    // Started five hours ago, timed out an hour ago, charged only the one hour minimum so far.
+    private Rent expiredSession() {
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        return rentRepository.save(Rent.builder()
+                .parkingSpot(testData.spot("SETTLE", new BigDecimal("2.00"), false))
+                .user(testData.user("settle"))
+                .startTime(minute.minusHours(5))
+                .blockedUntil(minute.minusHours(1))
+                .active(true)
+                .priceAtRentTime(new BigDecimal("2.00"))
+                .totalPrice(new BigDecimal("2.00"))
+                .paymentStatus(Rent.PaymentStatus.PAID)
+                .build());
+    }
+
+    // Ended at its timeout, not at the time of the sweep, and charged four hours at 2.00.
+    private void assertSettled(Rent session) {
+        Rent settled = rentRepository.findById(session.getId()).orElseThrow();
+        assertFalse(settled.isActive());
+        assertEquals(session.getBlockedUntil(), settled.getEndTime());
+        assertEquals(0, new BigDecimal("8.00").compareTo(settled.getTotalPrice()), settled.getTotalPrice().toString());
+        assertTrue(spotRepository.findById(session.getParkingSpot().getId()).orElseThrow().isAvailable());
+    }
+
+    private void raceCancelAndRebook(Runnable sweep, String blockedStatement) throws Exception {
+        User owner = testData.user("sweep");
+        User nextDriver = testData.user("sweep");
+        ParkingSpot spot = testData.spot("SWEEP", new BigDecimal("2.00"), false);
+        LocalDateTime now = LocalDateTime.now();
+        Rent overdue = rentRepository.save(Rent.builder()
+                .parkingSpot(spot)
+                .user(owner)
+                .startTime(now.minusHours(2))
+                .endTime(now.minusHours(1))
+                .blockedUntil(now.minusHours(1))
+                .active(true)
+                .paymentStatus(Rent.PaymentStatus.PAID)
+                .build());
+
+        // Cancel and rebook in one transaction that stays open until the sweep is blocked on it.
+        CountDownLatch rebooked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        AtomicReference<Rent> rebooking = new AtomicReference<>();
+        CompletableFuture<Void> cancelAndRebook = CompletableFuture.runAsync(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    authenticate(owner);
+                    rentService.cancelRent(overdue.getId());
+                    authenticate(nextDriver);
+                    rebooking.set(rentService.bookSpot(spot.getId()));
+                    rebooked.countDown();
+                    await(commit);
+                });
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        });
+        assertTrue(rebooked.await(10, TimeUnit.SECONDS));
+
+        // The sweep still sees the overdue rent as active and waits for its row lock.
+        CompletableFuture<Void> sweeping = CompletableFuture.runAsync(sweep);
+        awaitSweepBlocked(blockedStatement);
+        commit.countDown();
+        cancelAndRebook.get(10, TimeUnit.SECONDS);
+        sweeping.get(10, TimeUnit.SECONDS);
+
+        assertFalse(rentRepository.findById(overdue.getId()).orElseThrow().isActive());
+        assertTrue(rentRepository.findById(rebooking.get().getId()).orElseThrow().isActive());
+        assertFalse(spotRepository.findById(spot.getId()).orElseThrow().isAvailable());
+    }
+
+    private void awaitSweepBlocked(String statement) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            Integer waiting = jdbcTemplate.queryForObject("""
+                    select count(*) from pg_stat_activity
+                    where wait_event_type = 'Lock' and query like ?
+                    """, Integer.class, statement);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("Sweep did not block on the cancelled rent");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.parking.samurai.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void shouldFireEntriesAtTheirDeadlineAcrossLevels() {
+        TimingWheel wheel = new TimingWheel(1000, START);
+        wheel.schedule(1L, START + 5_000);          // level 0
+        wheel.schedule(2L, START + 30 * 60_000);    // level 1
+        wheel.schedule(3L, START + 26 * 3_600_000); // level 2
+
+        assertEquals(List.of(), wheel.advance(START + 4_000));
+        assertEquals(List.of(1L), wheel.advance(START + 5_000));
+        assertEquals(List.of(), wheel.advance(START + 30 * 60_000 - 1_000));
+        assertEquals(List.of(2L), wheel.advance(START + 30 * 60_000));
+        assertEquals(List.of(3L), wheel.advance(START + 26 * 3_600_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldNotFireCancelledOrRescheduledEntries() {
+        TimingWheel wheel = new TimingWheel(1000, START);
+        wheel.schedule(1L, START + 10_000);
+        wheel.schedule(2L, START + 10_000);
+        wheel.cancel(1L);
+        wheel.schedule(2L, START + 20_000);
+
+        assertEquals(List.of(), wheel.advance(START + 10_000));
+        assertEquals(List.of(2L), wheel.advance(START + 20_000));
+    }
+
+    @Test
+    void shouldFireOverdueEntriesOnNextTick() {
+        TimingWheel wheel = new TimingWheel(1000, START);
+        wheel.schedule(1L, START - 60_000);
+
+        assertEquals(List.of(1L), wheel.advance(START + 1_000));
+    }
+}
@@ -0,0 +1,99 @@
+package com.parking.samurai.security;
+
+import com.parking.samurai.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+* Tokens with a user id claim are authenticated from claims alone; tokens issued before the
+* claim existed fall back to UserCache, and revoked tokens are not authenticated at all.
+*/
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "yourVeryLongBase64SecretKeyHereAtLeast256BitsLonggggggggggggggg==";
+
+    private final JwtService jwtService = new JwtService(new SimpleMeterRegistry());
+    private final TokenRevocationService revocationService = new TokenRevocationService();
+    private final UserCache userCache = mock(UserCache.class);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, revocationService, userCache);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "expiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 100);
+        jwtService.init();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldAuthenticateFromClaimsWithoutLoadingTheUser() throws Exception {
+        String token = jwtService.generateToken(User.builder().id(7L).username("driver").password("x").build());
+
+        AuthenticatedUser user = authenticate(token);
+
+        assertEquals(7L, user.id());
+        assertEquals("driver", user.username());
+        verifyNoInteractions(userCache);
+    }
+
+    @Test
+    void shouldFallBackToTheUserCacheForTokensWithoutUserId() throws Exception {
+        // No id on the user: the token is issued without the uid claim, like tokens from before it existed.
+        String token = jwtService.generateToken(User.builder().username("legacy").password("x").build());
+        when(userCache.getByUsername("legacy"))
+                .thenReturn(User.builder().id(9L).username("legacy").password("x").build());
+
+        AuthenticatedUser user = authenticate(token);
+
+        assertEquals(9L, user.id());
+        assertEquals("legacy", user.username());
+        verify(userCache).getByUsername("legacy");
+    }
+
+    @Test
+    void shouldNotAuthenticateRevokedTokens() throws Exception {
+        String token = jwtService.generateToken(User.builder().username("legacy").password("x").build());
+        revocationService.revoke(jwtService.parseValidClaims(token));
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request(token), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userCache);
+    }
+
+    private AuthenticatedUser authenticate(String token) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request(token), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        return assertInstanceOf(AuthenticatedUser.class, authentication.getPrincipal());
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/rents/my-active");
+        request.setServletPath("/api/v1/rents/my-active");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
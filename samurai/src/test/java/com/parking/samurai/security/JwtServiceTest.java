@@ -0,0 +1,109 @@
+package com.parking.samurai.security;
+
+import com.parking.samurai.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "yourVeryLongBase64SecretKeyHereAtLeast256BitsLonggggggggggggggg==";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldServeRepeatedValidationsFromTheCache() {
+        JwtService service = newService(10_000, 60_000);
+        String token = service.generateToken(user(1L));
+
+        Claims first = service.parseValidClaims(token);
+        Claims second = service.parseValidClaims(token);
+
+        assertSame(first, second);
+        assertEquals("user-1", second.getSubject());
+        assertEquals(1, validations("miss"));
+        assertEquals(1, validations("hit"));
+    }
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedToken() {
+        JwtService service = newService(2, 60_000);
+        String a = service.generateToken(user(1L));
+        String b = service.generateToken(user(2L));
+        String c = service.generateToken(user(3L));
+
+        service.parseValidClaims(a);
+        service.parseValidClaims(b);
+        service.parseValidClaims(a);
+        // Full: b is the least recently used and makes room for c.
+        service.parseValidClaims(c);
+        service.parseValidClaims(a);
+        service.parseValidClaims(b);
+
+        assertEquals(4, validations("miss"));
+        assertEquals(2, validations("hit"));
+    }
+
+    @Test
+    void shouldRejectExpiredTokens() throws InterruptedException {
+        JwtService expired = newService(10_000, -1_000);
+        assertThrows(ExpiredJwtException.class, () -> expired.parseValidClaims(expired.generateToken(user(1L))));
+
+        // A cached token stops being served once it expires.
+        JwtService shortLived = newService(10_000, 1_000);
+        String token = shortLived.generateToken(user(2L));
+        shortLived.parseValidClaims(token);
+        Thread.sleep(2_000);
+        assertThrows(ExpiredJwtException.class, () -> shortLived.parseValidClaims(token));
+    }
+
+    @Test
+    void shouldRejectTamperedSignatures() {
+        JwtService service = newService(10_000, 60_000);
+        String token = service.generateToken(user(1L));
+        String other = service.generateToken(user(2L));
+        service.parseValidClaims(token);
+
+        // The other token's claims under this token's signature.
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + other.split("\\.")[1] + "." + parts[2];
+
+        assertThrows(JwtException.class, () -> service.parseValidClaims(forged));
+        assertEquals(1, validations("invalid"));
+        assertEquals("user-1", service.parseValidClaims(token).getSubject());
+    }
+
+    @Test
+    void shouldRejectTokensSignedWithAnotherKey() {
+        JwtService service = newService(10_000, 60_000);
+        JwtService otherKey = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(otherKey, "secret", "YW5vdGhlci1zZWNyZXQta2V5LWZvci10ZXN0cy1hdC1sZWFzdC0yNTYtYml0cyE=");
+        ReflectionTestUtils.setField(otherKey, "expiration", 60_000L);
+        ReflectionTestUtils.setField(otherKey, "cacheMaxSize", 10);
+        otherKey.init();
+
+        assertThrows(JwtException.class, () -> service.parseValidClaims(otherKey.generateToken(user(1L))));
+    }
+
+    private JwtService newService(int cacheMaxSize, long expiration) {
+        JwtService service = new JwtService(meterRegistry);
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "expiration", expiration);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", cacheMaxSize);
+        service.init();
+        return service;
+    }
+
+    private long validations(String cache) {
+        return meterRegistry.get("parking.jwt.validation").tag("cache", cache).timer().count();
+    }
+
+    private static User user(Long id) {
+        return User.builder().id(id).username("user-" + id).password("{noop}secret").build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.parking.samurai.security;
+
+import com.parking.samurai.entity.User;
+import com.parking.samurai.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedUser() {
+        when(userRepository.findByUsername(anyString()))
+                .thenAnswer(invocation -> Optional.of(user(invocation.getArgument(0))));
+        UserCache cache = newCache(2, 60_000);
+
+        cache.getByUsername("a");
+        cache.getByUsername("b");
+        cache.getByUsername("a");
+        // Full: b is the least recently used and makes room for c; a stays cached.
+        cache.getByUsername("c");
+        cache.getByUsername("a");
+        cache.getByUsername("b");
+
+        verify(userRepository, times(1)).findByUsername("a");
+        verify(userRepository, times(2)).findByUsername("b");
+        verify(userRepository, times(1)).findByUsername("c");
+    }
+
+    @Test
+    void shouldReloadExpiredAndEvictedUsers() {
+        when(userRepository.findByUsername(anyString()))
+                .thenAnswer(invocation -> Optional.of(user(invocation.getArgument(0))));
+        UserCache expiring = newCache(10_000, -1);
+        expiring.getByUsername("a");
+        expiring.getByUsername("a");
+        verify(userRepository, times(2)).findByUsername("a");
+
+        UserCache cache = newCache(10_000, 60_000);
+        cache.getByUsername("b");
+        cache.evict("b");
+        cache.getByUsername("b");
+        verify(userRepository, times(2)).findByUsername("b");
+    }
+
+    @Test
+    void shouldRejectUnknownUsers() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> newCache(10_000, 60_000).getByUsername("ghost"));
+    }
+
+    private UserCache newCache(int maxSize, long ttlMillis) {
+        UserCache cache = new UserCache(userRepository);
+        ReflectionTestUtils.setField(cache, "maxSize", maxSize);
+        ReflectionTestUtils.setField(cache, "ttlMillis", ttlMillis);
+        cache.init();
+        return cache;
+    }
+
+    private static User user(String username) {
+        return User.builder().username(username).password("{noop}secret").build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.parking.samurai.service;
+
+import com.parking.samurai.dto.ParkingSpotImportError;
+import com.parking.samurai.dto.ParkingSpotImportResult;
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.repository.ParkingSpotRepository;
+import com.parking.samurai.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* CSV and NDJSON imports: quoting, byte order mark, header checks, per-row rejections
+* with their line numbers, and the cap on reported errors. Small batches exercise batching.
+*/
+
+@SpringBootTest(properties = {
+        "parking.import.batch-size=2",
+        "parking.import.max-reported-errors=10"
+})
+class ParkingSpotImportServiceTest {
+
+    @Autowired
+    private ParkingSpotImportService importService;
+
+    @Autowired
+    private ParkingSpotRepository spotRepository;
+
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        prefix = TestData.unique("IMP") + "-";
+    }
+
+    @Test
+    void shouldImportQuotedCsvWithByteOrderMark() throws IOException {
+        ParkingSpotImportResult result = importCsv("\uFEFF" + """
+                 Available ,PricePerHour,LOCATION
+                true,2.50,"%1$sA, north"
+                false,3.00,"%1$sB ""VIP""\"
+                ,1.00,%1$sC
+                """.formatted(prefix));
+
+        assertEquals(new ParkingSpotImportResult(3, 0, List.of(), false), result);
+        Map<String, ParkingSpot> spots = importedSpots();
+        assertEquals(new BigDecimal("2.50"), spots.get(prefix + "A, north").getPricePerHour());
+        assertFalse(spots.get(prefix + "B \"VIP\"").isAvailable());
+        assertTrue(spots.get(prefix + "C").isAvailable());
+    }
+
+    @Test
+    void shouldRejectHeaderWithoutRequiredColumns() throws IOException {
+        ParkingSpotImportResult result = importCsv("""
+                location,price
+                %sA,1.00
+                """.formatted(prefix));
+
+        assertEquals(0, result.imported());
+        assertEquals(List.of(new ParkingSpotImportError(1, null, "Header must contain location and pricePerHour columns")),
+                result.errors());
+        assertTrue(importedSpots().isEmpty());
+    }
+
+    @Test
+    void shouldRejectInvalidRowsIndividually() throws IOException {
+        spotRepository.save(ParkingSpot.builder()
+                .location(prefix + "EXISTING")
+                .pricePerHour(BigDecimal.ONE)
+                .available(true)
+                .build());
+
+        ParkingSpotImportResult result = importCsv("""
+                location,pricePerHour,available
+                %1$sOK-1,2.00,true
+                "  ",2.00,true
+                %1$sNEG,-1,true
+                %1$sNOPRICE,,true
+                %1$sBAD,abc,true
+                %1$sMAYBE,2.00,maybe
+                "%1$sOPEN,2.00,true
+                %1$sOK-1,2.00,true
+
+                %1$sEXISTING,2.00,true
+                %1$sOK-2,2.00,false
+                """.formatted(prefix));
+
+        assertEquals(2, result.imported());
+        assertEquals(8, result.rejected());
+        assertFalse(result.errorsTruncated());
+        List<ParkingSpotImportError> errors = result.errors();
+        assertEquals(new ParkingSpotImportError(3, "", "Location is required"), errors.get(0));
+        assertEquals(new ParkingSpotImportError(4, prefix + "NEG", "Price per hour must be positive"), errors.get(1));
+        assertEquals(new ParkingSpotImportError(5, prefix + "NOPRICE", "Price per hour is required"), errors.get(2));
+        assertEquals(6, errors.get(3).line());
+        assertTrue(errors.get(3).message().startsWith("Malformed row: "));
+        assertEquals(new ParkingSpotImportError(7, null, "Malformed row: available must be true or false"), errors.get(4));
+        assertEquals(new ParkingSpotImportError(8, null, "Malformed row: Unterminated quoted field"), errors.get(5));
+        assertEquals(new ParkingSpotImportError(9, prefix + "OK-1", "Duplicate location in file"), errors.get(6));
+        assertEquals(new ParkingSpotImportError(11, prefix + "EXISTING", "Location already exists"), errors.get(7));
+        assertEquals(List.of(prefix + "EXISTING", prefix + "OK-1", prefix + "OK-2"),
+                importedSpots().keySet().stream().sorted().toList());
+    }
+
+    @Test
+    void shouldRejectMalformedNdjsonLines() throws IOException {
+        ParkingSpotImportResult result = importService.importSpots(stream("""
+                {"location":"%1$sJ-1","pricePerHour":2.00}
+                {"location":"%1$sJ-2","pricePerHour":
+                null
+                {"location":"%1$sJ-3","pricePerHour":1.50,"available":false}
+                """.formatted(prefix)), ParkingSpotImportService.Format.NDJSON);
+
+        assertEquals(2, result.imported());
+        assertEquals(2, result.rejected());
+        assertEquals(2, result.errors().get(0).line());
+        assertTrue(result.errors().get(0).message().startsWith("Malformed JSON: "));
+        assertEquals(new ParkingSpotImportError(3, null, "Row is empty"), result.errors().get(1));
+        assertFalse(importedSpots().get(prefix + "J-3").isAvailable());
+    }
+
+    @Test
+    void shouldCapReportedErrors() throws IOException {
+        StringBuilder csv = new StringBuilder("location,pricePerHour\n");
+        for (int i = 0; i < 12; i++) {
+            csv.append(prefix).append(i).append(",0\n");
+        }
+        csv.append(prefix).append("OK,1.00\n");
+
+        ParkingSpotImportResult result = importCsv(csv.toString());
+
+        assertEquals(1, result.imported());
+        assertEquals(12, result.rejected());
+        assertEquals(10, result.errors().size());
+        assertTrue(result.errorsTruncated());
+        assertEquals(2, result.errors().get(0).line());
+        assertEquals(11, result.errors().get(9).line());
+    }
+
+    private ParkingSpotImportResult importCsv(String csv) throws IOException {
+        return importService.importSpots(stream(csv), ParkingSpotImportService.Format.CSV);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map<String, ParkingSpot> importedSpots() {
+        return spotRepository.findAll().stream()
+                .filter(spot -> spot.getLocation().startsWith(prefix))
+                .collect(Collectors.toMap(ParkingSpot::getLocation, Function.identity()));
+    }
+}
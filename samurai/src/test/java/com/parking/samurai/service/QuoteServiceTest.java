@@ -0,0 +1,142 @@
+package com.parking.samurai.service;
+
+import com.parking.samurai.cache.ParkingSpotSnapshotCache;
+import com.parking.samurai.cache.ReservationIndex;
+import com.parking.samurai.dto.ParkingSpotFilter;
+import com.parking.samurai.dto.QuoteRequest;
+import com.parking.samurai.dto.QuoteResponse;
+import com.parking.samurai.dto.SpotQuote;
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.entity.Rent;
+import com.parking.samurai.repository.ParkingSpotRepository;
+import com.parking.samurai.repository.RentRepository;
+import com.parking.samurai.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* Quotes are computed from the spot snapshot with the default flat tariff:
+* cheapest first, filtered, limited, and reporting unknown ids. Spots reserved for part of
+* the quoted period are not available for it.
+*/
+
+@SpringBootTest
+@Import(TestData.class)
+class QuoteServiceTest {
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @Autowired
+    private ParkingSpotRepository spotRepository;
+
+    @Autowired
+    private ParkingSpotSnapshotCache snapshotCache;
+
+    @Autowired
+    private ReservationIndex reservationIndex;
+
+    @Autowired
+    private RentRepository rentRepository;
+
+    @Autowired
+    private TestData testData;
+
+    private String prefix;
+    private List<ParkingSpot> spots;
+
+    @BeforeEach
+    void setUp() {
+        prefix = TestData.unique("QUOTE") + "-";
+        spots = spotRepository.saveAll(List.of(
+                spot(prefix + "1", "3.00", true),
+                spot(prefix + "2", "2.00", true),
+                spot(prefix + "3", "1.00", false)
+        ));
+        snapshotCache.invalidate();
+    }
+
+    @Test
+    void shouldFindCheapestAvailableSpotForDuration() {
+        QuoteResponse response = quoteService.quote(new QuoteRequest(
+                null, new ParkingSpotFilter(prefix, null, null, true), null, 180, 1));
+
+        assertEquals(1, response.quotes().size());
+        SpotQuote cheapest = response.quotes().getFirst();
+        assertEquals(spots.get(1).getId(), cheapest.spotId());
+        assertEquals(new BigDecimal("6.00"), cheapest.totalPrice());
+        assertEquals(response.startTime().plusMinutes(180), response.endTime());
+    }
+
+    @Test
+    void shouldQuoteRequestedIdsCheapestFirst() {
+        Long unknownId = Long.MAX_VALUE;
+        QuoteResponse response = quoteService.quote(new QuoteRequest(
+                List.of(spots.get(0).getId(), spots.get(2).getId(), unknownId, spots.get(0).getId()),
+                null, null, 60, null));
+
+        assertEquals(List.of(spots.get(2).getId(), spots.get(0).getId()),
+                response.quotes().stream().map(SpotQuote::spotId).toList());
+        assertEquals(new BigDecimal("1.00"), response.quotes().get(0).totalPrice());
+        assertEquals(List.of(unknownId), response.unknownSpotIds());
+    }
+
+    @Test
+    void shouldNotOfferSpotsReservedDuringThePeriod() {
+        // The cheapest spot is free now, but reserved from one hour ahead.
+        ParkingSpot reserved = spots.get(1);
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        Rent reservation = rentRepository.save(Rent.builder()
+                .parkingSpot(reserved)
+                .user(testData.user("quote"))
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .blockedUntil(start.plusHours(1))
+                .active(false)
+                .reserved(true)
+                .priceAtRentTime(reserved.getPricePerHour())
+                .totalPrice(new BigDecimal("2.00"))
+                .paymentStatus(Rent.PaymentStatus.PAID)
+                .build());
+        reservationIndex.add(reserved.getId(), reservation.getId(), start, start.plusHours(1));
+
+        QuoteResponse threeHours = quoteService.quote(new QuoteRequest(
+                null, new ParkingSpotFilter(prefix, null, null, true), null, 180, 1));
+        assertEquals(spots.get(0).getId(), threeHours.quotes().getFirst().spotId());
+
+        QuoteResponse requested = quoteService.quote(new QuoteRequest(
+                List.of(reserved.getId()), null, null, 180, null));
+        assertFalse(requested.quotes().getFirst().available());
+
+        // A 50 minute period ends before the reservation starts.
+        QuoteResponse oneHour = quoteService.quote(new QuoteRequest(
+                null, new ParkingSpotFilter(prefix, null, null, true), null, 50, 1));
+        assertEquals(reserved.getId(), oneHour.quotes().getFirst().spotId());
+        assertTrue(oneHour.quotes().getFirst().available());
+    }
+
+    @Test
+    void shouldRequireExactlyOneOfEndTimeAndDuration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> quoteService.quote(new QuoteRequest(null, null, null, null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> quoteService.quote(new QuoteRequest(null, null, null, 0, null)));
+    }
+
+    private static ParkingSpot spot(String location, String price, boolean available) {
+        return ParkingSpot.builder()
+                .location(location)
+                .pricePerHour(new BigDecimal(price))
+                .available(available)
+                .build();
+    }
+}
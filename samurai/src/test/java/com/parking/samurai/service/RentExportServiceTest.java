@@ -0,0 +1,105 @@
+package com.parking.samurai.service;
+
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.entity.Rent;
+import com.parking.samurai.entity.User;
+import com.parking.samurai.repository.RentRepository;
+import com.parking.samurai.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* The export writes one JSON object per line, in id order, for the given user's rents
+* started within [from, to) only.
+*/
+
+@SpringBootTest
+@Import(TestData.class)
+class RentExportServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    @Autowired
+    private RentExportService exportService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private RentRepository rentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+    private User otherUser;
+    private ParkingSpot spot;
+
+    @BeforeEach
+    void setUp() {
+        user = testData.user("export");
+        otherUser = testData.user("export");
+        spot = testData.spot("EXPORT");
+    }
+
+    @Test
+    void shouldStreamTheUsersRentsWithinTheWindow() throws Exception {
+        rent(user, DAY.minusSeconds(1));
+        Rent first = rent(user, DAY);
+        Rent second = rent(user, DAY.plusHours(10));
+        rent(user, DAY.plusDays(1));
+        rent(otherUser, DAY.plusHours(1));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = exportService.exportNdjson(user.getId(), DAY, DAY.plusDays(1), out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"));
+        List<JsonNode> lines = body.lines().map(objectMapper::readTree).toList();
+        assertEquals(2, count);
+        assertEquals(List.of(first.getId(), second.getId()), lines.stream().map(line -> line.get("id").asLong()).toList());
+        JsonNode row = lines.get(0);
+        assertEquals(spot.getId(), row.get("spotId").asLong());
+        assertEquals(user.getId(), row.get("userId").asLong());
+        assertEquals("PAID", row.get("paymentStatus").asString());
+        assertFalse(row.get("active").asBoolean());
+    }
+
+    @Test
+    void shouldWriteNothingWhenNoRentMatches() throws Exception {
+        rent(otherUser, DAY);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, exportService.exportNdjson(user.getId(), DAY, DAY.plusDays(1), out));
+        assertEquals(0, out.size());
+    }
+
+    // Finished rents, so they never conflict with each other on the spot.
+    private Rent rent(User owner, LocalDateTime start) {
+        return rentRepository.save(Rent.builder()
+                .parkingSpot(spot)
+                .user(owner)
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .blockedUntil(start.plusHours(1))
+                .active(false)
+                .priceAtRentTime(spot.getPricePerHour())
+                .totalPrice(new BigDecimal("2.00"))
+                .paymentStatus(Rent.PaymentStatus.PAID)
+                .build());
+    }
+}
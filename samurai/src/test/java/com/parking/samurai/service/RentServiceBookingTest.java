@@ -0,0 +1,126 @@
+package com.parking.samurai.service;
+
+import com.parking.samurai.entity.Rent;
+import com.parking.samurai.entity.User;
+import com.parking.samurai.repository.ParkingSpotRepository;
+import com.parking.samurai.repository.RentRepository;
+import com.parking.samurai.support.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.parking.samurai.support.TestData.authenticate;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+* bookSpot against the real database: two users racing for one spot get exactly one rent,
+* and booking a spot that does not exist fails with "Spot not found". Cancelling a booking
+* settles it for the time it actually held the spot.
+*/
+
+@SpringBootTest
+@Import(TestData.class)
+class RentServiceBookingTest {
+
+    @Autowired
+    private RentService rentService;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private ParkingSpotRepository spotRepository;
+
+    @Autowired
+    private RentRepository rentRepository;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldBookSpotForExactlyOneOfTwoConcurrentUsers() throws Exception {
+        List<User> users = List.of(testData.user("booking"), testData.user("booking"));
+        Long spotId = testData.spot("BOOK").getId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Rent>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(users.size())) {
+            for (User user : users) {
+                results.add(executor.submit(() -> {
+                    authenticate(user);
+                    try {
+                        start.await();
+                        return rentService.bookSpot(spotId);
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                }));
+            }
+            start.countDown();
+        }
+
+        int booked = 0;
+        int rejected = 0;
+        for (Future<Rent> result : results) {
+            try {
+                assertEquals(spotId, result.get(10, TimeUnit.SECONDS).getParkingSpot().getId());
+                booked++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+                assertEquals("Spot is already rented", e.getCause().getMessage());
+                rejected++;
+            }
+        }
+        assertEquals(1, booked);
+        assertEquals(1, rejected);
+        assertEquals(1, rentRepository.findByParkingSpotIdAndActive(spotId, true).size());
+        assertFalse(spotRepository.findById(spotId).orElseThrow().isAvailable());
+    }
+
+    @Test
+    void shouldRejectBookingOfMissingSpot() {
+        authenticate(testData.user("booking"));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> rentService.bookSpot(Long.MAX_VALUE));
+        assertEquals("Spot not found", e.getMessage());
+    }
+
+    @Test
+    void shouldSettleTheActualDurationWhenABookingIsCancelled() {
+        authenticate(testData.user("booking"));
+        Rent booked = rentService.bookSpot(testData.spot("BOOK").getId());
+        // Charged the one hour minimum at 2.00 up front.
+        assertEquals(0, new BigDecimal("2.00").compareTo(booked.getTotalPrice()));
+
+        // The booking has actually been running for two hours.
+        Rent rent = rentRepository.findById(booked.getId()).orElseThrow();
+        rent.setStartTime(rent.getStartTime().minusHours(2));
+        rentRepository.save(rent);
+
+        LocalDateTime before = LocalDateTime.now();
+        rentService.cancelRent(booked.getId());
+
+        Rent cancelled = rentRepository.findById(booked.getId()).orElseThrow();
+        assertFalse(cancelled.isActive());
+        assertFalse(cancelled.getEndTime().isBefore(before));
+        // Two hours and up to two started minutes at 2.00/h.
+        assertTrue(cancelled.getTotalPrice().compareTo(new BigDecimal("4.00")) >= 0, cancelled.getTotalPrice().toString());
+        assertTrue(cancelled.getTotalPrice().compareTo(new BigDecimal("4.07")) <= 0, cancelled.getTotalPrice().toString());
+    }
+}
@@ -0,0 +1,133 @@
+package com.parking.samurai.service;
+
+import com.parking.samurai.dto.ParkingSpotChange;
+import com.parking.samurai.event.ParkingSpotChangesEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+* Coalescing and batching of spot change notifications against a mocked broker template:
+* latest state per spot wins, versions are consecutive across frames, and frames go out on
+* the publisher thread, either on the flush interval or as soon as a full batch is pending.
+*/
+
+class WebSocketServiceTest {
+
+    private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BlockingQueue<Object> frames = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> senderThreads = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+
+    private WebSocketService service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void shouldSendTheLatestStatePerSpotInOneFrame() throws InterruptedException {
+        service = newService(NEVER, 100, 1000);
+
+        service.notifySpotChanged(1L, false);
+        service.notifySpotsChanged(List.of(2L, 3L), false);
+        service.notifySpotChanged(1L, true);
+        service.flush();
+
+        // Spot 1 changed last, so it moves behind 2 and 3 and only its latest state is sent.
+        assertEquals(List.of(
+                new ParkingSpotChange(1, 2L, false),
+                new ParkingSpotChange(2, 3L, false),
+                new ParkingSpotChange(3, 1L, true)), nextFrame());
+        assertEquals(3, service.currentVersion());
+        assertEquals(new ParkingSpotChangesEvent(List.of(
+                new ParkingSpotChange(1, 2L, false),
+                new ParkingSpotChange(2, 3L, false),
+                new ParkingSpotChange(3, 1L, true))), events.poll());
+
+        // Nothing pending, nothing sent.
+        service.flush();
+        assertNull(frames.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void shouldSplitLargeFlushesIntoFramesWithConsecutiveVersions() throws InterruptedException {
+        service = newService(NEVER, 2, 1000);
+
+        service.notifySpotsChanged(List.of(1L, 2L, 3L, 4L, 5L), true);
+
+        // The full batch is flushed early, by the publisher, in frames of at most two changes.
+        assertEquals(List.of(new ParkingSpotChange(1, 1L, true), new ParkingSpotChange(2, 2L, true)), nextFrame());
+        assertEquals(List.of(new ParkingSpotChange(3, 3L, true), new ParkingSpotChange(4, 4L, true)), nextFrame());
+        assertEquals(List.of(new ParkingSpotChange(5, 5L, true)), nextFrame());
+        assertEquals(List.of("spot-change-publisher", "spot-change-publisher", "spot-change-publisher"),
+                List.copyOf(senderThreads));
+
+        service.notifySpotChanged(1L, false);
+        service.flush();
+        assertEquals(List.of(new ParkingSpotChange(6, 1L, false)), nextFrame());
+    }
+
+    @Test
+    void shouldFlushOnTheIntervalBelowAFullBatch() throws InterruptedException {
+        service = newService(50, 100, 1000);
+
+        service.notifySpotChanged(7L, false);
+
+        assertEquals(List.of(new ParkingSpotChange(1, 7L, false)), nextFrame());
+        assertEquals("spot-change-publisher", senderThreads.poll());
+    }
+
+    @Test
+    void shouldDropNewSpotsWhenFullAndSkipAVersion() throws InterruptedException {
+        service = newService(NEVER, 100, 2);
+
+        service.notifySpotsChanged(List.of(1L, 2L), false);
+        // Full: spot 3 is dropped, spot 1 is still merged.
+        service.notifySpotChanged(3L, false);
+        service.notifySpotChanged(1L, true);
+        assertNull(frames.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, meterRegistry.get("parking.websocket.pending").gauge().value());
+        assertEquals(1, meterRegistry.get("parking.websocket.dropped").counter().count());
+
+        service.flush();
+
+        // Version 1 is skipped so that consumers notice the dropped change.
+        assertEquals(List.of(new ParkingSpotChange(2, 2L, false), new ParkingSpotChange(3, 1L, true)), nextFrame());
+        assertEquals(0, meterRegistry.get("parking.websocket.pending").gauge().value());
+    }
+
+    private WebSocketService newService(long flushIntervalMs, int maxBatchSize, int maxPending) {
+        doAnswer(invocation -> {
+            senderThreads.add(Thread.currentThread().getName());
+            frames.add(invocation.getArgument(1));
+            return null;
+        }).when(messagingTemplate).convertAndSend(eq(WebSocketService.PARKING_SPOTS_TOPIC), any(Object.class));
+        return new WebSocketService(messagingTemplate, events::add, meterRegistry,
+                flushIntervalMs, maxBatchSize, maxPending);
+    }
+
+    private Object nextFrame() throws InterruptedException {
+        Object frame = frames.poll(5, TimeUnit.SECONDS);
+        assertNotNull(frame, "No frame was sent");
+        return frame;
+    }
+}
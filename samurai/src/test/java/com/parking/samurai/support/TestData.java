@@ -0,0 +1,66 @@
+package com.parking.samurai.support;
+
+import com.parking.samurai.entity.ParkingSpot;
+import com.parking.samurai.entity.User;
+import com.parking.samurai.repository.ParkingSpotRepository;
+import com.parking.samurai.repository.UserRepository;
+import com.parking.samurai.security.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+* Shared fixtures for tests against the real database. Tests do not roll back (several commit
+* from other threads on purpose), so every user name and location is made unique per run.
+* Import with @Import(TestData.class).
+*/
+
+@TestComponent
+@RequiredArgsConstructor
+public class TestData {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final UserRepository userRepository;
+    private final ParkingSpotRepository spotRepository;
+
+    // prefix-<run>-<n>, unique across tests, threads and runs against the same database.
+    public static String unique(String prefix) {
+        return prefix + "-" + System.nanoTime() + "-" + SEQUENCE.incrementAndGet();
+    }
+
+    public User user(String prefix) {
+        return user(prefix, User.Role.USER);
+    }
+
+    public User user(String prefix, User.Role role) {
+        return userRepository.save(User.builder()
+                .username(unique(prefix))
+                .password("{noop}secret")
+                .role(role)
+                .build());
+    }
+
+    public ParkingSpot spot(String prefix) {
+        return spot(prefix, new BigDecimal("2.00"), true);
+    }
+
+    public ParkingSpot spot(String prefix, BigDecimal pricePerHour, boolean available) {
+        return spotRepository.save(ParkingSpot.builder()
+                .location(unique(prefix))
+                .pricePerHour(pricePerHour)
+                .available(available)
+                .build());
+    }
+
+    // Authenticates the current thread as the user, like JwtAuthenticationFilter does for a request.
+    public static void authenticate(User user) {
+        AuthenticatedUser principal = AuthenticatedUser.of(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.authorities()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.parking.samurai.util;
+
+import com.parking.samurai.dto.ParkingSpotPage;
+import com.parking.samurai.dto.ParkingSpotView;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingSpotJsonTest {
+
+    private final JsonMapper jackson = JsonMapper.builder().build();
+
+    private final List<ParkingSpotView> spots = List.of(
+            new ParkingSpotView(1L, "A-1", new BigDecimal("2.50"), true),
+            new ParkingSpotView(2L, "Tiefgarage \"Süd\"\t\\2", new BigDecimal("10"), false),
+            new ParkingSpotView(3_000_000_000L, null, null, true),
+            new ParkingSpotView(4L, "B-\u0001\u001f\n", new BigDecimal("1.00"), false)
+    );
+
+    @Test
+    void shouldMatchJacksonForLists() {
+        byte[][] prefixes = ParkingSpotJson.prefixes(spots);
+
+        assertJson(jackson.writeValueAsString(spots), ParkingSpotJson.writeArray(spots, prefixes, false));
+        assertJson(jackson.writeValueAsString(List.of(spots.get(0), spots.get(2))),
+                ParkingSpotJson.writeArray(spots, prefixes, true));
+        assertJson("[]", ParkingSpotJson.writeArray(List.of(), new byte[0][], false));
+    }
+
+    @Test
+    void shouldMatchJacksonForPages() {
+        ParkingSpotPage page = new ParkingSpotPage(spots, 3_000_000_000L);
+        ParkingSpotPage lastPage = new ParkingSpotPage(List.of(), null);
+
+        assertJson(jackson.writeValueAsString(page), ParkingSpotJson.writePage(page));
+        assertJson(jackson.writeValueAsString(lastPage), ParkingSpotJson.writePage(lastPage));
+    }
+
+    // Compares parsed trees, so escaping that is equivalent but spelled differently still matches.
+    private void assertJson(String expected, byte[] actual) {
+        assertEquals(jackson.readTree(expected), jackson.readTree(new String(actual, StandardCharsets.UTF_8)));
+    }
+}